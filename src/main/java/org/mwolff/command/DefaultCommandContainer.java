@@ -28,9 +28,16 @@
 package org.mwolff.command;
 
 import org.mwolff.command.interfaces.*;
+import org.mwolff.command.process.LazyProcessCommand;
+import org.mwolff.command.process.SubProcessCommand;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.TreeMap;
 
 import static org.mwolff.command.interfaces.CommandTransition.*;
@@ -53,11 +60,40 @@ public class DefaultCommandContainer<T> implements CommandContainer<T> {
                 }
             });
 
+    /**
+     * Maximum number of nested sub-processes, guarding against definitions
+     * invoking themselves endlessly.
+     */
+    public static final int MAX_SUBPROCESS_DEPTH = 1024;
+
+    private CommandListener<T> listener;
+
+    private volatile Map<String, ProcessCommand<T>> processIndex;
+
+    /**
+     * Adds a listener which is notified on every execution of a command in
+     * this container. Multiple listeners are notified in the order they were
+     * added. Without any listener the container runs without any
+     * instrumentation overhead.
+     *
+     * @param commandListener The listener to add.
+     * @return this
+     */
+    public DefaultCommandContainer<T> addCommandListener(final CommandListener<T> commandListener) {
+        if (listener == null) {
+            listener = commandListener;
+        } else {
+            listener = CommandListener.compose(listener, commandListener);
+        }
+        return this;
+    }
+
     /**
      * @inheritDoc
      **/
      @Override
     public CommandContainer<T> addCommand(final Command<T> command) {
+        processIndex = null;
         commandList.put(0, command);
         return this;
     }
@@ -67,10 +103,19 @@ public class DefaultCommandContainer<T> implements CommandContainer<T> {
      **/
     @Override
     public CommandContainer<T> addCommand(final int priority, final Command<T> command) {
+        processIndex = null;
         commandList.put(priority, command);
         return this;
     }
 
+    /**
+     * @return The commands of this container in the order of execution.
+     * @since 2.1.0
+     */
+    public List<Command<T>> getCommands() {
+        return new ArrayList<>(commandList.values());
+    }
+
     @Override
     public CommandTransition executeCommandAsChain(T parameterObject) {
         return executeCommandsInLoop(parameterObject, true);
@@ -82,30 +127,144 @@ public class DefaultCommandContainer<T> implements CommandContainer<T> {
      */
     @Override
     public String executeAsProcess(final String startCommand, final T context) {
+        executeProcess(startCommand, context);
+        return null;
+    }
 
-        return Optional.ofNullable(getCommandByProcessID(startCommand))
-                .flatMap(cmd ->
-                    Optional.ofNullable(cmd.executeAsProcess(context))
-                        .map(cmd::findNext))
-                        .map(nextCommand -> this.executeAsProcess(nextCommand, context))
-                .orElse(null);
+    /**
+     * Executes the process like {@link #executeAsProcess(String, Object)}.
+     * Sub-process steps are executed in the same loop: the fragment of the
+     * step is pushed on a stack and popped when it ends, so nested
+     * sub-processes need no recursion.
+     *
+     * @param startCommand The command the process should start with.
+     * @param context      The context to work with.
+     * @return The last result returned by a command of this process, which is
+     *         the result of the process if it is a sub-process.
+     * @since 2.1.0
+     */
+    public String executeProcess(final String startCommand, final T context) {
+        if (listener != null) {
+            return executeProcessObserved(startCommand, context, listener);
+        }
+        DefaultCommandContainer<T> container = this;
+        Deque<Frame<T>> stack = null;
+        String last = null;
+        String next = startCommand;
+        while (true) {
+            final ProcessCommand<T> command = next == null ? null : container.getCommandByProcessID(next);
+            if (command == null) {
+                if (stack == null || stack.isEmpty()) {
+                    return last;
+                }
+                final Frame<T> frame = stack.pop();
+                container = frame.container;
+                next = last == null ? null : frame.step.findNext(last);
+                continue;
+            }
+            if (command instanceof SubProcessCommand) {
+                final SubProcessCommand<T> step = (SubProcessCommand<T>) command;
+                stack = push(stack, container, step);
+                container = step.getFragment();
+                next = step.getStart();
+                last = null;
+                continue;
+            }
+            final String result = command.executeAsProcess(context);
+            if (result != null) {
+                last = result;
+            }
+            next = result == null ? null : command.findNext(result);
+        }
     }
 
+    private static <T> Deque<Frame<T>> push(Deque<Frame<T>> stack, final DefaultCommandContainer<T> container,
+            final SubProcessCommand<T> step) {
+        if (stack == null) {
+            stack = new ArrayDeque<>();
+        }
+        if (stack.size() >= MAX_SUBPROCESS_DEPTH) {
+            throw new CommandException("Sub-processes nested deeper than " + MAX_SUBPROCESS_DEPTH
+                    + " at " + step.getDefinition());
+        }
+        stack.push(new Frame<>(container, step));
+        return stack;
+    }
+
+    /** A sub-process step and the container to return to. */
+    private static final class Frame<T> {
+        private final DefaultCommandContainer<T> container;
+        private final SubProcessCommand<T> step;
+
+        private Frame(final DefaultCommandContainer<T> container, final SubProcessCommand<T> step) {
+            this.container = container;
+            this.step = step;
+        }
+    }
+
+    /**
+     * Finds a command by its process ID. If several commands share an ID the
+     * first one in order of execution is found. The lookup uses an index built
+     * on first use and rebuilt when a command is added, so process IDs should
+     * not change once the container is executed.
+     *
+     * @throws CommandException if a lazy action is instantiated which is no
+     *         process command.
+     */
     @Override
     public ProcessCommand<T> getCommandByProcessID(final String proceddID) {
+        Map<String, ProcessCommand<T>> index = processIndex;
+        if (index == null) {
+            index = buildProcessIndex();
+        }
+        ProcessCommand<T> command = index.get(proceddID);
+        if (command != null && !proceddID.equals(command.getProcessID())) {
+            command = buildProcessIndex().get(proceddID);
+        }
+        if (command instanceof LazyProcessCommand) {
+            return resolve(proceddID, (LazyProcessCommand<T>) command);
+        }
+        return command;
+    }
 
-        ProcessCommand<T> command = null;
-
-        for (final Command<T> actcommand : commandList.values()) {
-            final String actualProcessId = ((ProcessCommand<T>) actcommand).getProcessID();
-            if (actualProcessId.equals(proceddID)) {
-                command = (ProcessCommand<T>) actcommand;
-                break;
+    /**
+     * Instantiates a placeholder and swaps the instance into the index, so
+     * later lookups get the command without any indirection.
+     *
+     * @throws CommandException if the instance is no process command.
+     */
+    private ProcessCommand<T> resolve(final String processID, final LazyProcessCommand<T> lazy) {
+        final Command<T> instance = lazy.getInstance();
+        if (!(instance instanceof ProcessCommand)) {
+            throw new CommandException("Action '" + processID + "': " + instance.getClass().getName()
+                    + " is no ProcessCommand");
+        }
+        final ProcessCommand<T> command = (ProcessCommand<T>) instance;
+        synchronized (this) {
+            final Map<String, ProcessCommand<T>> index = processIndex;
+            if (index != null && index.get(processID) == lazy) {
+                final Map<String, ProcessCommand<T>> swapped = new HashMap<>(index);
+                swapped.put(processID, command);
+                processIndex = swapped;
             }
         }
         return command;
     }
 
+    private Map<String, ProcessCommand<T>> buildProcessIndex() {
+        final Map<String, ProcessCommand<T>> index = new HashMap<>();
+        for (final Command<T> command : commandList.values()) {
+            if (command instanceof ProcessCommand) {
+                final String processID = ((ProcessCommand<T>) command).getProcessID();
+                if (processID != null) {
+                    index.putIfAbsent(processID, (ProcessCommand<T>) command);
+                }
+            }
+        }
+        processIndex = index;
+        return index;
+    }
+
     @Override
     public String getProcessID() {
         return null;
@@ -126,7 +285,102 @@ public class DefaultCommandContainer<T> implements CommandContainer<T> {
         return executeCommandsInLoop(parameterObject, false);
     }
 
+    /**
+     * Executes the batch. In {@link BatchMode#COMMAND_MAJOR} each command
+     * runs for all parameter objects which did not fail yet before the next
+     * command runs. A {@link BatchCommand} is called once with all of them,
+     * nested containers execute them command-major as well. Containers with a
+     * listener execute the batch sequentially in this mode, so listeners see
+     * one parameter object at a time.
+     *
+     * @see CommandContainer#executeBatch(List, BatchMode)
+     */
+    @Override
+    public byte[] executeBatch(final List<T> parameterObjects, final BatchMode mode) {
+        if (mode != BatchMode.COMMAND_MAJOR || listener != null) {
+            return CommandContainer.super.executeBatch(parameterObjects, mode);
+        }
+        return executeCommandMajor(parameterObjects.toArray(), false);
+    }
+
+    /**
+     * Executes the batch as chain, like {@link #executeBatch(List, BatchMode)}.
+     * Parameter objects stop at FAILURE or DONE. A {@link BatchCommand} has no
+     * chain variant, so it is called for one parameter object at a time.
+     *
+     * @see CommandContainer#executeBatchAsChain(List, BatchMode)
+     */
+    @Override
+    public byte[] executeBatchAsChain(final List<T> parameterObjects, final BatchMode mode) {
+        if (mode != BatchMode.COMMAND_MAJOR || listener != null) {
+            return CommandContainer.super.executeBatchAsChain(parameterObjects, mode);
+        }
+        return executeCommandMajor(parameterObjects.toArray(), true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] executeCommandMajor(final Object[] batch, final boolean isChainCommand) {
+        final byte[] results = new byte[batch.length];
+        Arrays.fill(results, (byte) SUCCESS.ordinal());
+        for (final Command<T> command : commandList.values()) {
+            if (command instanceof CommandContainer || (!isChainCommand && command instanceof BatchCommand)) {
+                executeBatched(command, batch, results, isChainCommand);
+                continue;
+            }
+            for (int i = 0; i < batch.length; i++) {
+                if (!stopped(results[i], isChainCommand)) {
+                    final CommandTransition transition = isChainCommand
+                            ? ((ChainCommand<T>) command).executeCommandAsChain((T) batch[i])
+                            : command.executeCommand((T) batch[i]);
+                    results[i] = (byte) transition.ordinal();
+                }
+            }
+        }
+        return results;
+    }
+
+    private static boolean stopped(final byte result, final boolean isChainCommand) {
+        return result == FAILURE.ordinal() || (isChainCommand && result == DONE.ordinal());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeBatched(final Command<T> command, final Object[] batch, final byte[] results,
+            final boolean isChainCommand) {
+        final int[] active = new int[batch.length];
+        final List<T> parameterObjects = new ArrayList<>(batch.length);
+        for (int i = 0; i < batch.length; i++) {
+            if (!stopped(results[i], isChainCommand)) {
+                active[parameterObjects.size()] = i;
+                parameterObjects.add((T) batch[i]);
+            }
+        }
+        if (parameterObjects.isEmpty()) {
+            return;
+        }
+        if (command instanceof BatchCommand) {
+            final CommandTransition[] transitions = ((BatchCommand<T>) command).executeCommandBatch(parameterObjects);
+            if (transitions.length != parameterObjects.size()) {
+                throw new CommandException(command.getClass().getName() + " returned " + transitions.length
+                        + " transitions for " + parameterObjects.size() + " parameter objects");
+            }
+            for (int i = 0; i < transitions.length; i++) {
+                results[active[i]] = (byte) transitions[i].ordinal();
+            }
+        } else {
+            final CommandContainer<T> container = (CommandContainer<T>) command;
+            final byte[] transitions = isChainCommand
+                    ? container.executeBatchAsChain(parameterObjects, BatchMode.COMMAND_MAJOR)
+                    : container.executeBatch(parameterObjects, BatchMode.COMMAND_MAJOR);
+            for (int i = 0; i < transitions.length; i++) {
+                results[active[i]] = transitions[i];
+            }
+        }
+    }
+
     private CommandTransition executeCommandsInLoop(T parameterObject, boolean isChainCommand) {
+        if (listener != null) {
+            return executeCommandsObserved(parameterObject, isChainCommand, listener);
+        }
         CommandTransition transition = SUCCESS;
         for (final Command<T> command : commandList.values()) {
             if (isChainCommand) {
@@ -140,4 +394,100 @@ public class DefaultCommandContainer<T> implements CommandContainer<T> {
         }
         return transition;
     }
+
+    private CommandTransition executeCommandsObserved(T parameterObject, boolean isChainCommand,
+            CommandListener<T> commandListener) {
+        commandListener.beforeContainer(this, parameterObject);
+        try {
+            CommandTransition transition = SUCCESS;
+            for (final Command<T> command : commandList.values()) {
+                commandListener.beforeExecution(command, parameterObject);
+                try {
+                    if (isChainCommand) {
+                        transition = ((ChainCommand<T>) command).executeCommandAsChain(parameterObject);
+                    } else {
+                        transition = command.executeCommand(parameterObject);
+                    }
+                } catch (final RuntimeException e) {
+                    commandListener.onFailure(command, parameterObject, e);
+                    throw e;
+                }
+                commandListener.afterExecution(command, parameterObject, transition);
+                if (transition.equals(FAILURE) || (isChainCommand && transition.equals(DONE))) {
+                    break;
+                }
+            }
+            return transition;
+        } finally {
+            commandListener.afterContainer(this, parameterObject);
+        }
+    }
+
+    private String executeProcessObserved(final String startCommand, final T context,
+            final CommandListener<T> commandListener) {
+        commandListener.beforeContainer(this, context);
+        try {
+            DefaultCommandContainer<T> container = this;
+            Deque<Frame<T>> stack = null;
+            String last = null;
+            String next = startCommand;
+            while (true) {
+                final ProcessCommand<T> command = next == null ? null : container.getCommandByProcessID(next);
+                if (command == null) {
+                    if (stack == null || stack.isEmpty()) {
+                        return last;
+                    }
+                    final Frame<T> frame = stack.pop();
+                    container = frame.container;
+                    next = last == null ? null : frame.step.findNext(last);
+                    commandListener.onTransition(frame.step, context, last, next);
+                    commandListener.afterExecution(frame.step, context, next == null ? DONE : NEXT);
+                    continue;
+                }
+                commandListener.beforeExecution(command, context);
+                if (command instanceof SubProcessCommand) {
+                    final SubProcessCommand<T> step = (SubProcessCommand<T>) command;
+                    try {
+                        final DefaultCommandContainer<T> fragment = step.getFragment();
+                        next = step.getStart();
+                        stack = push(stack, container, step);
+                        container = fragment;
+                    } catch (final RuntimeException e) {
+                        commandListener.onFailure(command, context, e);
+                        unwind(stack, context, commandListener, e);
+                        throw e;
+                    }
+                    last = null;
+                    continue;
+                }
+                final String result;
+                try {
+                    result = command.executeAsProcess(context);
+                    next = result == null ? null : command.findNext(result);
+                } catch (final RuntimeException e) {
+                    commandListener.onFailure(command, context, e);
+                    unwind(stack, context, commandListener, e);
+                    throw e;
+                }
+                if (result != null) {
+                    last = result;
+                }
+                commandListener.onTransition(command, context, result, next);
+                commandListener.afterExecution(command, context, next == null ? DONE : NEXT);
+            }
+        } finally {
+            commandListener.afterContainer(this, context);
+        }
+    }
+
+    /**
+     * Notifies the failure to every open sub-process step, innermost first, so
+     * each beforeExecution is paired when an exception leaves the process.
+     */
+    private static <T> void unwind(final Deque<Frame<T>> stack, final T context,
+            final CommandListener<T> commandListener, final RuntimeException e) {
+        while (stack != null && !stack.isEmpty()) {
+            commandListener.onFailure(stack.pop().step, context, e);
+        }
+    }
 }
@@ -0,0 +1,184 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.builder;
+
+import org.mwolff.command.CommandException;
+import org.mwolff.command.interfaces.CommandContainer;
+import org.mwolff.command.process.FragmentCache;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/** Loads many chain definitions in parallel and keeps the containers by name.
+ * Every definition is read, parsed, resolved and instantiated by its own task,
+ * so the files are processed independently on all workers of the pool. If
+ * definitions fail, the others are still loaded and all failures are reported
+ * together by one {@link CommandException}.
+ * <p>
+ * The name of a definition is its file name without the extension, e.g.
+ * <code>order</code> for <code>/chains/order.xml</code>. Definitions loaded
+ * together must have different names; loading a name again later replaces its
+ * container. Sub-processes referenced by several definitions are parsed once
+ * and shared.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class ChainRegistry<T extends Object> {
+
+    private final Map<String, CommandContainer<T>> containers = new ConcurrentHashMap<>();
+    private final FragmentCache<T> fragments = XMLChainBuilder.createFragmentCache();
+    private final ForkJoinPool pool;
+
+    /** Registry loading on the common pool. */
+    public ChainRegistry() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /** Registry loading on the given pool.
+     *
+     * @param pool
+     *            The pool to load with. */
+    public ChainRegistry(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Loads all <code>*.xml</code> files of the directory.
+     *
+     * @param directory
+     *            The directory to load.
+     * @return this
+     * @throws CommandException
+     *             if the directory cannot be read or definitions fail. */
+    public ChainRegistry<T> loadDirectory(final Path directory) {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.xml")) {
+            stream.forEach(files::add);
+        } catch (final IOException e) {
+            throw new CommandException("Cannot read directory " + directory, e);
+        }
+        return load(files);
+    }
+
+    /** Loads the definitions. An entry is a classpath resource name, a
+     * {@link Path} or a {@link URI}, see
+     * {@link org.mwolff.command.sax.InputSourceReaderCommand}.
+     *
+     * @param definitions
+     *            The definitions to load.
+     * @return this
+     * @throws CommandException
+     *             if two definitions have the same name, nothing is loaded
+     *             then, or if definitions fail, also by a
+     *             <code>LinkageError</code> of an action class; all
+     *             successfully loaded ones are registered anyway. Other
+     *             errors, e.g. an <code>OutOfMemoryError</code>, propagate. */
+    public ChainRegistry<T> load(final Collection<?> definitions) {
+        final Map<String, Object> byName = new LinkedHashMap<>();
+        for (final Object definition : definitions) {
+            final Object other = byName.putIfAbsent(nameOf(definition), definition);
+            if (other != null) {
+                throw new CommandException("Definitions " + other + " and " + definition + " have the same name "
+                        + nameOf(definition));
+            }
+        }
+
+        final Map<String, Throwable> errors = new ConcurrentSkipListMap<>();
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(byName.size());
+        byName.forEach((name, definition) -> tasks.add(pool.submit(() -> {
+            try {
+                containers.put(name, builder(definition).getCommandContainer());
+            } catch (final RuntimeException | LinkageError e) {
+                errors.put(name, e);
+            }
+        })));
+        tasks.forEach(ForkJoinTask::join);
+
+        if (!errors.isEmpty()) {
+            final StringBuilder message = new StringBuilder("Failed to load ").append(errors.size())
+                    .append(" of ").append(definitions.size()).append(" definitions:");
+            errors.forEach((name, error) -> message.append(' ').append(name).append(": ")
+                    .append(error.getMessage()).append(';'));
+            final CommandException exception = new CommandException(message.substring(0, message.length() - 1));
+            errors.values().forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return this;
+    }
+
+    /** @param name
+     *            The name of the definition.
+     * @return The container or null if no definition of this name is loaded. */
+    public CommandContainer<T> get(final String name) {
+        return containers.get(name);
+    }
+
+    /** @return The names of all loaded definitions. */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(containers.keySet());
+    }
+
+    /** @return The number of loaded definitions. */
+    public int size() {
+        return containers.size();
+    }
+
+    static String nameOf(final Object definition) {
+        String name = definition instanceof Path ? String.valueOf(((Path) definition).getFileName())
+                : definition.toString();
+        name = name.substring(name.lastIndexOf('/') + 1);
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private XMLChainBuilder<T> builder(final Object definition) {
+        final XMLChainBuilder<T> builder;
+        if (definition instanceof Path) {
+            builder = new XMLChainBuilder<>((Path) definition);
+        } else if (definition instanceof URI) {
+            builder = new XMLChainBuilder<>((URI) definition);
+        } else {
+            builder = new XMLChainBuilder<>(definition.toString());
+        }
+        return builder.setFragmentCache(fragments);
+    }
+}
@@ -0,0 +1,234 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.builder;
+
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.compiler.ChainCompiler;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.process.DefaultTransition;
+import org.mwolff.command.sax.Action;
+import org.mwolff.command.sax.ProcessGraphValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/** Builds processes in Java instead of XML:
+ *
+ * <pre>
+ * FluentProcessBuilder.&lt;Context&gt;process("order")
+ *         .action("Start", StartCommand::new).on("OK").goTo("Next")
+ *         .action("Next", NextCommand::new).on("OK").goTo(ProcessCommand.END)
+ *         .build();
+ * </pre>
+ *
+ * The commands are created by their factories, no class is looked up by
+ * name. The graph is validated by {@link ProcessGraphValidator} when it is
+ * built, exactly like an XML definition.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public final class FluentProcessBuilder<T extends Object> {
+
+    private final String name;
+    private final List<Action> actions = new ArrayList<>();
+    private final List<Supplier<? extends Command<T>>> factories = new ArrayList<>();
+    private String start;
+
+    private FluentProcessBuilder(final String name) {
+        this.name = name;
+    }
+
+    /** Starts the definition of a process.
+     *
+     * @param name
+     *            The name of the process, used in error messages.
+     * @return The builder. */
+    public static <T extends Object> FluentProcessBuilder<T> process(final String name) {
+        return new FluentProcessBuilder<>(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Declares the start action, which must exist then. Unreachable actions
+     * are not detected, because the classes of the actions are not known
+     * before they are created and each of them may route to any action.
+     *
+     * @param id
+     *            The ID of the start action.
+     * @return this */
+    public FluentProcessBuilder<T> start(final String id) {
+        this.start = id;
+        return this;
+    }
+
+    /** Adds a process action.
+     *
+     * @param id
+     *            The process ID of the action.
+     * @param factory
+     *            Creates the command of the action.
+     * @return The action, to add its transitions. */
+    public ActionStep<T> action(final String id, final Supplier<? extends ProcessCommand<T>> factory) {
+        final Action action = new Action();
+        action.setId(id);
+        actions.add(action);
+        factories.add(factory);
+        return new ActionStep<>(this, action);
+    }
+
+    /** Adds a command without process ID, which is only executed as chain.
+     *
+     * @param factory
+     *            Creates the command.
+     * @return this */
+    public FluentProcessBuilder<T> command(final Supplier<? extends Command<T>> factory) {
+        actions.add(new Action());
+        factories.add(factory);
+        return this;
+    }
+
+    /** Validates the process and creates its commands.
+     *
+     * @return A new container with the commands.
+     * @throws CommandException
+     *             if the process is invalid. */
+    public DefaultCommandContainer<T> build() {
+        final List<String> errors = ProcessGraphValidator.validate(actions, start);
+        if (!errors.isEmpty()) {
+            throw new CommandException("Invalid process definition '" + name + "': " + String.join("; ", errors));
+        }
+        final DefaultCommandContainer<T> container = new DefaultCommandContainer<>();
+        for (int i = 0; i < actions.size(); i++) {
+            final Action action = actions.get(i);
+            final Command<T> command = factories.get(i).get();
+            if (command == null) {
+                final String label = action.getId() == null ? String.valueOf(i) : "'" + action.getId() + "'";
+                throw new CommandException("Factory of action " + label + " of process '" + name + "' returned null");
+            }
+            if (action.getId() != null) {
+                final ProcessCommand<T> processCommand = (ProcessCommand<T>) command;
+                processCommand.setProcessID(action.getId());
+                action.getTransitions().forEach(processCommand::addTransition);
+            }
+            container.addCommand(command);
+        }
+        return container;
+    }
+
+    /** Builds the process and compiles it, see {@link ChainCompiler}.
+     *
+     * @return The compiled process.
+     * @throws CommandException
+     *             if the process is invalid. */
+    public ProcessCommand<T> compile() {
+        return ChainCompiler.compile(build());
+    }
+
+    /** A process action of the builder, to add transitions.
+     *
+     * @param <T>
+     *            The context type. */
+    public static final class ActionStep<T extends Object> {
+
+        private final FluentProcessBuilder<T> builder;
+        private final Action action;
+
+        private ActionStep(final FluentProcessBuilder<T> builder, final Action action) {
+            this.builder = builder;
+            this.action = action;
+        }
+
+        /** Starts a transition for a result of the action.
+         *
+         * @param returnValue
+         *            The result of the action.
+         * @return The transition, to set its target. */
+        public TransitionStep<T> on(final String returnValue) {
+            return new TransitionStep<>(this, returnValue);
+        }
+
+        /** @see FluentProcessBuilder#action(String, Supplier) */
+        public ActionStep<T> action(final String id, final Supplier<? extends ProcessCommand<T>> factory) {
+            return builder.action(id, factory);
+        }
+
+        /** @see FluentProcessBuilder#command(Supplier) */
+        public FluentProcessBuilder<T> command(final Supplier<? extends Command<T>> factory) {
+            return builder.command(factory);
+        }
+
+        /** @see FluentProcessBuilder#start(String) */
+        public FluentProcessBuilder<T> start(final String id) {
+            return builder.start(id);
+        }
+
+        /** @see FluentProcessBuilder#build() */
+        public DefaultCommandContainer<T> build() {
+            return builder.build();
+        }
+
+        /** @see FluentProcessBuilder#compile() */
+        public ProcessCommand<T> compile() {
+            return builder.compile();
+        }
+    }
+
+    /** A transition without target yet.
+     *
+     * @param <T>
+     *            The context type. */
+    public static final class TransitionStep<T extends Object> {
+
+        private final ActionStep<T> step;
+        private final String returnValue;
+
+        private TransitionStep(final ActionStep<T> step, final String returnValue) {
+            this.step = step;
+            this.returnValue = returnValue;
+        }
+
+        /** Completes the transition.
+         *
+         * @param target
+         *            The ID of the next action or {@link ProcessCommand#END}.
+         * @return The action, to add more transitions. */
+        public ActionStep<T> goTo(final String target) {
+            final DefaultTransition transition = new DefaultTransition();
+            transition.setReturnValue(returnValue);
+            transition.setTarget(target);
+            step.action.setTransition(transition);
+            return step;
+        }
+    }
+}
@@ -33,48 +33,92 @@ import org.mwolff.command.interfaces.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/** Chain builder for commands injected by a framework like Spring. The chain
+ * is built on first use and reused by all executions until the commands or
+ * listeners change, so concurrent callers share one container.
+ *
+ * @author Manfred Wolff */
 public class InjectionChainBuilder<T extends Object> implements Command<T>, ProcessCommand<T>, ChainCommand<T> {
 
-    private List<Command<T>> commands = new ArrayList<>();
+    private volatile List<Command<T>> commands = new ArrayList<>();
+    private volatile CommandListener<T> listener;
+    private volatile CommandContainer<T> chain;
 
     @Override
     public CommandTransition executeCommand(T parameterObject) {
-        return buildChain().executeCommand(parameterObject);
+        return getChain().executeCommand(parameterObject);
     }
 
     @Override
     public CommandTransition executeCommandAsChain(T parameterObject) {
-        return buildChain().executeCommandAsChain(parameterObject);
+        return getChain().executeCommandAsChain(parameterObject);
     }
 
     /** @see ProcessCommand#executeAsProcess(java.lang.String,
      *      java.lang.Object) */
     @Override
     public String executeAsProcess(final String startCommand, final T context) {
-        return buildChain().executeAsProcess(startCommand, context);
+        return getChain().executeAsProcess(startCommand, context);
+    }
+
+    /** Gets the chain, building it on the first call after the commands or
+     * listeners changed.
+     *
+     * @return The command container of this builder.
+     * @since 2.1.0 */
+    protected CommandContainer<T> getChain() {
+        CommandContainer<T> container = chain;
+        if (container == null) {
+            synchronized (this) {
+                container = chain;
+                if (container == null) {
+                    container = buildChain();
+                    chain = container;
+                }
+            }
+        }
+        return container;
     }
 
     /** Builds the chain for this builder.
      *
      * @return Returns the command container build. */
     protected CommandContainer<T> buildChain() {
-        final CommandContainer<T> commandContainer = new DefaultCommandContainer<>();
+        final DefaultCommandContainer<T> commandContainer = new DefaultCommandContainer<>();
+        if (listener != null) {
+            commandContainer.addCommandListener(listener);
+        }
         commands.forEach(commandContainer::addCommand);
         return commandContainer;
     }
 
+    /** Adds a listener to every container this builder builds. So the injected
+     * commands are observed even if the builder is nested in another
+     * container.
+     *
+     * @param commandListener
+     *            The listener to add.
+     * @return this */
+    public synchronized InjectionChainBuilder<T> addCommandListener(final CommandListener<T> commandListener) {
+        listener = listener == null ? commandListener : CommandListener.compose(listener, commandListener);
+        chain = null;
+        return this;
+    }
+
     /** @see ProcessCommand#getProcessID() */
     @Override
     public String getProcessID() {
         return null;
     }
 
-    /** Sets the list of commands.
+    /** Sets the list of commands. The list is copied, the chain is rebuilt on
+     * the next execution.
      *
      * @param commands
      *            Command to set from the injection framework. */
-    public void setCommands(final List<Command<T>> commands) {
-        this.commands = commands;
+    public synchronized void setCommands(final List<Command<T>> commands) {
+        this.commands = new ArrayList<>(commands);
+        chain = null;
     }
 
     /** @see ProcessCommand#setProcessID(java.lang.String) */
@@ -32,29 +32,143 @@ package org.mwolff.command.builder;
 import org.mwolff.command.CommandException;
 import org.mwolff.command.DefaultCommandContainer;
 import org.mwolff.command.interfaces.*;
+import org.mwolff.command.monitor.ChainBuiltEvent;
+import org.mwolff.command.process.FragmentCache;
+import org.mwolff.command.sax.Action;
 import org.mwolff.command.sax.ActionListToCommandContainerCommand;
+import org.mwolff.command.sax.BinaryDefinitionReaderCommand;
 import org.mwolff.command.sax.InputSourceReaderCommand;
+import org.mwolff.command.sax.ProcessGraphValidator;
 import org.mwolff.command.sax.SaxParameterObject;
-import org.mwolff.command.sax.SaxParserCommand;
+import org.mwolff.command.sax.StaxParserCommand;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.mwolff.command.interfaces.CommandTransition.*;
 import static org.mwolff.command.sax.GlobalCommandConstants.*;
 
 /** Chain builder parsing an XML file for building chains or process chains.
+ * If a current binary definition of the file exists it is loaded instead, see
+ * {@link org.mwolff.command.sax.BinaryDefinition}.
  *
  * @author Manfred Wolff */
 public class XMLChainBuilder<T extends Object> implements Command<T>, ProcessCommand<T>, ChainCommand<T> {
 
-    private final String xmlFilename;
+    private final Object xmlSource;
+    private CommandListener<T> listener;
+    private boolean lazyActions;
+    private final Map<String, CommandContainer<T>> subgraphs = new ConcurrentHashMap<>();
+    private Map<String, Command<Object>> instances;
+    private FragmentCache<T> fragments;
+    private boolean sharedFragments;
 
     public XMLChainBuilder(final String xmlFilename) {
-        this.xmlFilename = xmlFilename;
+        this(xmlFilename, null);
+    }
+
+    /** Builder for a definition in the file system.
+     *
+     * @param xmlFile
+     *            The XML file.
+     * @since 2.1.0 */
+    public XMLChainBuilder(final Path xmlFile) {
+        this(xmlFile, null);
+    }
+
+    /** Builder for a definition at the given URI.
+     *
+     * @param xmlURI
+     *            The URI of the XML definition.
+     * @since 2.1.0 */
+    public XMLChainBuilder(final URI xmlURI) {
+        this(xmlURI, null);
+    }
+
+    /** Builder for a definition held in memory.
+     *
+     * @param xmlContent
+     *            The XML definition itself.
+     * @since 2.1.0 */
+    public XMLChainBuilder(final byte[] xmlContent) {
+        this(xmlContent.clone(), null);
+    }
+
+    /** Builder sharing the sub-process fragments of its owner. */
+    private XMLChainBuilder(final Object xmlSource, final FragmentCache<T> fragments) {
+        this.xmlSource = xmlSource;
+        this.fragments = fragments != null ? fragments : new FragmentCache<>(this::buildFragment);
+    }
+
+    /** Creates a cache of sub-process fragments to share between builders,
+     * see {@link #setFragmentCache(FragmentCache)}. The fragments are built
+     * with the default settings.
+     *
+     * @return The cache.
+     * @since 2.1.0 */
+    public static <T extends Object> FragmentCache<T> createFragmentCache() {
+        return new FragmentCache<>((definition, cache) -> new XMLChainBuilder<T>(definition, cache).buildChain());
     }
 
+    /** Shares the fragments of sub-processes with other builders, so each
+     * referenced definition is parsed once for all of them. Without a shared
+     * cache every builder builds the fragments with its own settings.
+     *
+     * @param fragmentCache
+     *            The cache, see {@link #createFragmentCache()}.
+     * @return this
+     * @since 2.1.0 */
+    public XMLChainBuilder<T> setFragmentCache(final FragmentCache<T> fragmentCache) {
+        this.fragments = fragmentCache;
+        this.sharedFragments = true;
+        subgraphs.clear();
+        return this;
+    }
+
+    /** Adds a listener to every container this builder builds. So the commands
+     * of the XML file are observed even if the builder is nested in another
+     * container.
+     *
+     * @param commandListener
+     *            The listener to add.
+     * @return this */
+    public XMLChainBuilder<T> addCommandListener(final CommandListener<T> commandListener) {
+        listener = listener == null ? commandListener : CommandListener.compose(listener, commandListener);
+        subgraphs.clear();
+        clearOwnFragments();
+        return this;
+    }
+
+    /** Registers the actions with an ID as placeholders which are instantiated
+     * when the process reaches them first, see
+     * {@link org.mwolff.command.process.LazyProcessCommand}. Classes that
+     * cannot be instantiated are then reported on first use instead of while
+     * building.
+     *
+     * @param lazy
+     *            true to instantiate actions lazily.
+     * @return this
+     * @since 2.1.0 */
+    public XMLChainBuilder<T> setLazyActions(final boolean lazy) {
+        this.lazyActions = lazy;
+        subgraphs.clear();
+        clearOwnFragments();
+        return this;
+    }
+
+    /** Builds and executes the process with the actions reachable from the
+     * start command, see {@link #getCommandContainer(String)}. Every call
+     * reads the definition and gets command instances of its own. */
     @Override
     public String executeAsProcess(String startCommand, T context) {
         try {
-            return buildChain().executeAsProcess(startCommand, context);
+            return buildChain(startCommand).executeAsProcess(startCommand, context);
         } catch (final CommandException e) {
             return null;
         }
@@ -75,20 +189,143 @@ public class XMLChainBuilder<T extends Object> implements Command<T>, ProcessCom
         throw new UnsupportedOperationException("Chainbuilder has no process id.");
     }
 
-    @SuppressWarnings("unchecked")
+    /** Builds the container described by the XML file, e.g. to inspect or
+     * export it.
+     *
+     * @return The container.
+     * @throws CommandException
+     *             if the XML file cannot be read or parsed.
+     * @since 2.1.0 */
+    public CommandContainer<T> getCommandContainer() throws CommandException {
+        return buildChain();
+    }
+
+    /** Gets the container with only the actions reachable from the start
+     * action, following the transitions of the definition. Other actions are
+     * neither instantiated nor validated. If a reachable action routes by an
+     * own <code>findNext</code>, it may reach any action, so all actions are
+     * part of the container then. The container is built once per start
+     * action and cached by this builder until {@link #reload()}, so
+     * processes starting at different entry points of a large definition only
+     * pay for their part.
+     * <p>
+     * The cached container and its command instances are shared by all
+     * callers and threads using the same start action, like those of a
+     * container built once and executed many times. Use
+     * {@link #executeAsProcess(String, Object)} for instances of your own.
+     *
+     * @param start
+     *            The ID of the start action.
+     * @return The container, empty if there is no such action.
+     * @throws CommandException
+     *             if the XML file cannot be read or parsed.
+     * @since 2.1.0 */
+    public CommandContainer<T> getCommandContainer(final String start) throws CommandException {
+        if (start == null) {
+            return buildChain();
+        }
+        return subgraphs.computeIfAbsent(start, this::buildChain);
+    }
+
+    /** Builds the container again after the definition changed. Actions
+     * with the same ID, class and transitions as in the former reload keep
+     * their command instance. Only new and changed actions are instantiated,
+     * so containers returned before keep running their former routing. The
+     * first call builds the whole container. The definitions of sub-processes
+     * are built again on their next use.
+     *
+     * @return The container.
+     * @throws CommandException
+     *             if the XML file cannot be read or parsed. The instances of
+     *             the former reload are kept then.
+     * @since 2.1.0 */
+    public synchronized CommandContainer<T> reload() throws CommandException {
+        subgraphs.clear();
+        fragments.clear();
+        return buildChain(null, instances == null ? new HashMap<>() : instances);
+    }
+
     protected CommandContainer<T> buildChain() throws CommandException {
+        return buildChain(null, null);
+    }
+
+    private CommandContainer<T> buildChain(final String start) throws CommandException {
+        return buildChain(start, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CommandContainer<T> buildChain(final String start, final Map<String, Command<Object>> reusable)
+            throws CommandException {
+
+        final ChainBuiltEvent event = new ChainBuiltEvent();
+        event.begin();
 
         final SaxParameterObject context = new SaxParameterObject();
-        context.put(FILE_NAME.toString(), this.xmlFilename);
+        context.put(FILE_NAME.toString(), this.xmlSource);
+        context.put(FRAGMENT_CACHE.toString(), fragments);
+
+        CommandTransition transition = new BinaryDefinitionReaderCommand().executeCommand(context);
+        if (transition == FAILURE) {
+            transition = new DefaultCommandContainer<SaxParameterObject>()
+                    .addCommand(1, new InputSourceReaderCommand())
+                    .addCommand(2, new StaxParserCommand())
+                    .executeCommand(context);
+        }
+        if (transition != FAILURE && start != null) {
+            final List<Action> actions = (List<Action>) context.get(ACTION_LIST.toString());
+            final Set<String> reachable = ProcessGraphValidator.reachable(actions, start);
+            final List<Action> subgraph = new ArrayList<>(reachable.size());
+            for (final Action action : actions) {
+                if (reachable.contains(action.getId())) {
+                    subgraph.add(action);
+                }
+            }
+            context.put(ACTION_LIST.toString(), subgraph);
+            // The start of the definition may not be part of the subgraph.
+            context.put(PROCESS_START.toString(), null);
+        }
+        if (transition != FAILURE) {
+            if (reusable != null) {
+                context.put(COMMAND_INSTANCES.toString(), reusable);
+            }
+            transition = new ActionListToCommandContainerCommand(lazyActions).executeCommand(context);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.definition = this.xmlSource instanceof byte[] ? "<memory>" : this.xmlSource.toString();
+            event.builderClass = getClass();
+            event.successful = transition != FAILURE;
+            event.commit();
+        }
 
-        if (new DefaultCommandContainer<SaxParameterObject>()
-                .addCommand(1, new InputSourceReaderCommand())
-                .addCommand(2, new SaxParserCommand())
-                .addCommand(3, new ActionListToCommandContainerCommand())
-                .executeCommand(context) == FAILURE) {
+        if (transition == FAILURE) {
             throw new CommandException(context.getAsString(ERROR_STRING.toString()));
         }
-        return (CommandContainer<T>) context.get(COMMAND_CONTAINER.toString());
+        if (reusable != null) {
+            instances = (Map<String, Command<Object>>) context.get(COMMAND_INSTANCES.toString());
+        }
+        final CommandContainer<T> container = (CommandContainer<T>) context.get(COMMAND_CONTAINER.toString());
+        if (listener != null && container instanceof DefaultCommandContainer) {
+            ((DefaultCommandContainer<T>) container).addCommandListener(listener);
+        }
+        return container;
+    }
+
+    /** Builds the definition of a sub-process with the settings of this
+     * builder. */
+    private CommandContainer<T> buildFragment(final String definition, final FragmentCache<T> cache) {
+        final XMLChainBuilder<T> builder = new XMLChainBuilder<>(definition, cache);
+        builder.lazyActions = lazyActions;
+        builder.listener = listener;
+        return builder.buildChain();
+    }
+
+    /** Fragments built with changed settings must be built again. */
+    private void clearOwnFragments() {
+        if (!sharedFragments) {
+            fragments.clear();
+        }
     }
 
     @Override
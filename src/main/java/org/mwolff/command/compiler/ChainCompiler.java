@@ -0,0 +1,242 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.compiler;
+
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.compiler.ClassFileWriter.Code;
+import org.mwolff.command.interfaces.ChainCommand;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import static org.mwolff.command.compiler.ClassFileWriter.ACC_FINAL;
+import static org.mwolff.command.compiler.ClassFileWriter.ACC_PROTECTED;
+import static org.mwolff.command.compiler.ClassFileWriter.ACC_PUBLIC;
+import static org.mwolff.command.compiler.ClassFileWriter.Code.*;
+
+/** Compiles a frozen {@link DefaultCommandContainer} into a hidden class with
+ * one call site per command. Each command is held in a field of its concrete
+ * class and called with <code>invokevirtual</code>, so every call site sees
+ * exactly one receiver type and the JIT can inline the whole chain. Commands
+ * of classes which cannot be linked from the generated class (non-public,
+ * hidden or from another class loader) are called through their interface;
+ * the call site stays monomorphic anyway. Nested default containers are
+ * compiled as well.
+ *
+ * The compiled command behaves like the container in all execution modes. It
+ * is a snapshot: commands added later and changed process IDs or transitions
+ * are not seen. Listeners of the container are not notified.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public final class ChainCompiler {
+
+    /** Maximum number of commands per container, keeping the generated methods
+     * well below the size limit of the class file format. */
+    public static final int MAX_COMMANDS = 2000;
+
+    private static final String BASE = name(CompiledContainer.class);
+    private static final String OBJECT = "Ljava/lang/Object;";
+    private static final String TRANSITION = name(CommandTransition.class);
+    private static final String EXECUTE = "(" + OBJECT + ")L" + TRANSITION + ";";
+    private static final String PROCESS = "(" + OBJECT + ")Ljava/lang/String;";
+
+    private ChainCompiler() {
+    }
+
+    /** Compiles the container.
+     *
+     * @param container
+     *            The container to compile.
+     * @return A command executing the commands of the container.
+     * @throws CommandException
+     *             if the container cannot be compiled. */
+    public static <T extends Object> ProcessCommand<T> compile(final DefaultCommandContainer<T> container) {
+        final List<Command<T>> commands = container.getCommands();
+        if (commands.size() > MAX_COMMANDS) {
+            throw new IllegalArgumentException("Container with more than " + MAX_COMMANDS + " commands.");
+        }
+        final Object[] fields = new Object[commands.size()];
+        final Class<?>[] types = new Class<?>[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Command<T> command = commands.get(i);
+            if (command instanceof DefaultCommandContainer) {
+                command = compile((DefaultCommandContainer<T>) command);
+            }
+            fields[i] = command;
+            types[i] = linkableType(command);
+        }
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClass(generate(types), true);
+            return (ProcessCommand<T>) lookup
+                    .findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Object[].class))
+                    .invoke(fields);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new CommandException("Cannot compile container.", e);
+        }
+    }
+
+    private static Class<?> linkableType(final Command<?> command) {
+        final Class<?> type = command.getClass();
+        if (!type.isHidden() && Modifier.isPublic(type.getModifiers())) {
+            try {
+                if (Class.forName(type.getName(), false, ChainCompiler.class.getClassLoader()) == type) {
+                    return type;
+                }
+            } catch (final ClassNotFoundException | LinkageError e) {
+                // Not visible, use the interface.
+            }
+        }
+        if (command instanceof ProcessCommand) {
+            return ProcessCommand.class;
+        }
+        return command instanceof ChainCommand ? ChainCommand.class : Command.class;
+    }
+
+    private static byte[] generate(final Class<?>[] types) {
+        final ClassFileWriter writer = new ClassFileWriter(BASE + "$Compiled", BASE);
+        final int[] fields = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            writer.field(ACC_FINAL, "command" + i, "L" + name(types[i]) + ";");
+            fields[i] = writer.fieldRef(BASE + "$Compiled", "command" + i, "L" + name(types[i]) + ";");
+        }
+
+        final Code init = new Code(3, 2);
+        init.op(ALOAD_0).op(ALOAD_1).invokeSpecial(writer.methodRef(BASE, "<init>", "([" + OBJECT + ")V"));
+        for (int i = 0; i < types.length; i++) {
+            init.op(ALOAD_0).op(ALOAD_1).pushInt(i).op(AALOAD).checkCast(writer.classRef(name(types[i])))
+                    .putField(fields[i]);
+        }
+        writer.method(ACC_PUBLIC, "<init>", "([" + OBJECT + ")V", init.op(RETURN));
+
+        writer.method(ACC_PUBLIC, "executeCommand", EXECUTE,
+                chain(writer, types, fields, "executeCommand", Command.class, "FAILURE"));
+        writer.method(ACC_PUBLIC, "executeCommandAsChain", EXECUTE,
+                chain(writer, types, fields, "executeCommandAsChain", ChainCommand.class, "FAILURE", "DONE"));
+        writer.method(ACC_PROTECTED, "step", "(I" + OBJECT + ")Ljava/lang/String;", step(writer, types, fields));
+        return writer.toByteArray();
+    }
+
+    /** Calls the method on every command until one returns one of the
+     * transitions to stop at. Returns the last transition or SUCCESS if there
+     * is no command. */
+    private static Code chain(final ClassFileWriter writer, final Class<?>[] types, final int[] fields,
+            final String method, final Class<?> declaring, final String... stops) {
+        final Code code = new Code(2, 3);
+        final int transition = writer.classRef(TRANSITION);
+        if (types.length == 0) {
+            code.getStatic(writer.fieldRef(TRANSITION, "SUCCESS", "L" + TRANSITION + ";")).op(ASTORE_2);
+        }
+        final int[] jumps = new int[Math.max(0, types.length - 1) * stops.length];
+        int jumpCount = 0;
+        for (int i = 0; i < types.length; i++) {
+            code.op(ALOAD_0).getField(fields[i]).op(ALOAD_1);
+            invoke(writer, code, types[i], declaring, method, EXECUTE);
+            code.op(ASTORE_2);
+            if (i < types.length - 1) {
+                for (final String stop : stops) {
+                    code.op(ALOAD_2).getStatic(writer.fieldRef(TRANSITION, stop, "L" + TRANSITION + ";"));
+                    jumps[jumpCount++] = code.ifAcmpEq();
+                }
+            }
+        }
+        for (int i = 0; i < jumpCount; i++) {
+            code.bindJump(jumps[i]);
+        }
+        code.appendFrame(transition);
+        return code.op(ALOAD_2).op(ARETURN);
+    }
+
+    /** A table switch over the index of the command, executing it as process
+     * command. Indexes of other commands return null. */
+    private static Code step(final ClassFileWriter writer, final Class<?>[] types, final int[] fields) {
+        final Code code = new Code(2, 3);
+        if (types.length == 0) {
+            return code.op(ACONST_NULL).op(ARETURN);
+        }
+        code.op(ILOAD_1);
+        final int tableSwitch = code.size();
+        code.op(0xaa);
+        while (code.size() % 4 != 0) {
+            code.u1(0);
+        }
+        final int table = code.size();
+        code.u4(0).u4(0).u4(types.length - 1);
+        for (int i = 0; i < types.length; i++) {
+            code.u4(0);
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (ProcessCommand.class.isAssignableFrom(types[i])) {
+                code.patch4(table + 12 + 4 * i, code.size() - tableSwitch);
+                code.sameFrame();
+                code.op(ALOAD_0).getField(fields[i]).op(ALOAD_2);
+                invoke(writer, code, types[i], ProcessCommand.class, "executeAsProcess", PROCESS);
+                code.op(ARETURN);
+            }
+        }
+        final int defaultOffset = code.size() - tableSwitch;
+        code.patch4(table, defaultOffset);
+        for (int i = 0; i < types.length; i++) {
+            if (!ProcessCommand.class.isAssignableFrom(types[i])) {
+                code.patch4(table + 12 + 4 * i, defaultOffset);
+            }
+        }
+        code.sameFrame();
+        return code.op(ACONST_NULL).op(ARETURN);
+    }
+
+    private static void invoke(final ClassFileWriter writer, final Code code, final Class<?> type,
+            final Class<?> declaring, final String method, final String descriptor) {
+        if (!type.isInterface()) {
+            if (declaring.isAssignableFrom(type)) {
+                code.invokeVirtual(writer.methodRef(name(type), method, descriptor));
+                return;
+            }
+        } else if (declaring.isAssignableFrom(type)) {
+            code.invokeInterface(writer.interfaceMethodRef(name(type), method, descriptor), 1);
+            return;
+        }
+        // The command does not implement the interface: fail as the container does.
+        code.checkCast(writer.classRef(name(declaring)));
+        code.invokeInterface(writer.interfaceMethodRef(name(declaring), method, descriptor), 1);
+    }
+
+    private static String name(final Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+}
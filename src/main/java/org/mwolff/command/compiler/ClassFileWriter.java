@@ -0,0 +1,327 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Minimal writer for class files as needed by the {@link ChainCompiler}:
+ * constant pool, fields and methods with code and stack map frames. No
+ * interfaces, exception tables or debug attributes.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int VERSION = 61;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolSize = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<byte[]> methods = new ArrayList<>();
+
+    ClassFileWriter(final String name, final String superName) {
+        thisClass = classRef(name);
+        superClass = classRef(superName);
+    }
+
+    int utf8(final String value) {
+        return entry("U" + value, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        });
+    }
+
+    int classRef(final String internalName) {
+        final int name = utf8(internalName);
+        return entry("C" + internalName, out -> {
+            out.writeByte(7);
+            out.writeShort(name);
+        });
+    }
+
+    int fieldRef(final String owner, final String name, final String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    int methodRef(final String owner, final String name, final String descriptor) {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(final String owner, final String name, final String descriptor) {
+        return memberRef(11, owner, name, descriptor);
+    }
+
+    private int memberRef(final int tag, final String owner, final String name, final String descriptor) {
+        final int ownerIndex = classRef(owner);
+        final int nameIndex = utf8(name);
+        final int descriptorIndex = utf8(descriptor);
+        final int nameAndType = entry("N" + name + ' ' + descriptor, out -> {
+            out.writeByte(12);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return entry(tag + owner + '.' + name + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int entry(final String key, final PoolEntry entry) {
+        final Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            entry.write(poolOut);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        entries.put(key, poolSize);
+        return poolSize++;
+    }
+
+    void field(final int access, final String name, final String descriptor) {
+        final Buffer buffer = new Buffer();
+        buffer.u2(access).u2(utf8(name)).u2(utf8(descriptor)).u2(0);
+        fields.add(buffer.toByteArray());
+    }
+
+    void method(final int access, final String name, final String descriptor, final Code code) {
+        final Buffer attributes = new Buffer();
+        attributes.u2(code.maxStack).u2(code.maxLocals).u4(code.size()).bytes(code.toByteArray()).u2(0);
+        if (code.frames.size() == 0) {
+            attributes.u2(0);
+        } else {
+            final byte[] frames = code.frames.toByteArray();
+            attributes.u2(1).u2(utf8("StackMapTable")).u4(frames.length + 2).u2(code.frameCount).bytes(frames);
+        }
+        final byte[] attribute = attributes.toByteArray();
+        final Buffer method = new Buffer();
+        method.u2(access).u2(utf8(name)).u2(utf8(descriptor)).u2(1);
+        method.u2(utf8("Code")).u4(attribute.length).bytes(attribute);
+        methods.add(method.toByteArray());
+    }
+
+    byte[] toByteArray() {
+        final Buffer buffer = new Buffer();
+        buffer.u4(0xCAFEBABE).u2(0).u2(VERSION).u2(poolSize).bytes(pool.toByteArray());
+        buffer.u2(ACC_FINAL | ACC_SUPER).u2(thisClass).u2(superClass).u2(0);
+        buffer.u2(fields.size());
+        fields.forEach(buffer::bytes);
+        buffer.u2(methods.size());
+        methods.forEach(buffer::bytes);
+        return buffer.u2(0).toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface PoolEntry {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /** Growable byte buffer with big endian writes. */
+    static class Buffer {
+
+        private byte[] data = new byte[64];
+        private int size;
+
+        Buffer u1(final int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = (byte) value;
+            return this;
+        }
+
+        Buffer u2(final int value) {
+            return u1(value >>> 8).u1(value);
+        }
+
+        Buffer u4(final int value) {
+            return u2(value >>> 16).u2(value);
+        }
+
+        Buffer bytes(final byte[] bytes) {
+            for (final byte value : bytes) {
+                u1(value);
+            }
+            return this;
+        }
+
+        void patch4(final int position, final int value) {
+            data[position] = (byte) (value >>> 24);
+            data[position + 1] = (byte) (value >>> 16);
+            data[position + 2] = (byte) (value >>> 8);
+            data[position + 3] = (byte) value;
+        }
+
+        void patch2(final int position, final int value) {
+            data[position] = (byte) (value >>> 8);
+            data[position + 1] = (byte) value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    /** Bytecode of one method together with its stack map frames. Frames must
+     * be added in ascending order of their offsets. */
+    static class Code extends Buffer {
+
+        static final int ALOAD_0 = 0x2a;
+        static final int ALOAD_1 = 0x2b;
+        static final int ALOAD_2 = 0x2c;
+        static final int ASTORE_2 = 0x4d;
+        static final int ACONST_NULL = 0x01;
+        static final int AALOAD = 0x32;
+        static final int ARETURN = 0xb0;
+        static final int RETURN = 0xb1;
+        static final int ILOAD_1 = 0x1b;
+
+        private final int maxStack;
+        private final int maxLocals;
+        private final Buffer frames = new Buffer();
+        private int frameCount;
+        private int lastFrame = -1;
+
+        Code(final int maxStack, final int maxLocals) {
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        Code op(final int opcode) {
+            u1(opcode);
+            return this;
+        }
+
+        Code op(final int opcode, final int index) {
+            u1(opcode).u2(index);
+            return this;
+        }
+
+        Code pushInt(final int value) {
+            if (value <= 5) {
+                u1(0x03 + value);
+            } else if (value < 128) {
+                u1(0x10).u1(value);
+            } else {
+                u1(0x11).u2(value);
+            }
+            return this;
+        }
+
+        Code getField(final int field) {
+            return op(0xb4, field);
+        }
+
+        Code putField(final int field) {
+            return op(0xb5, field);
+        }
+
+        Code getStatic(final int field) {
+            return op(0xb2, field);
+        }
+
+        Code checkCast(final int type) {
+            return op(0xc0, type);
+        }
+
+        Code invokeSpecial(final int method) {
+            return op(0xb7, method);
+        }
+
+        Code invokeVirtual(final int method) {
+            return op(0xb6, method);
+        }
+
+        Code invokeInterface(final int method, final int argumentSlots) {
+            u1(0xb9).u2(method).u1(argumentSlots + 1).u1(0);
+            return this;
+        }
+
+        /** Writes <code>if_acmpeq</code> with a placeholder offset.
+         *
+         * @return Position of the instruction for {@link #bindJump(int)}. */
+        int ifAcmpEq() {
+            final int position = size();
+            u1(0xa5).u2(0);
+            return position;
+        }
+
+        void bindJump(final int position) {
+            patch2(position + 1, size() - position);
+        }
+
+        /** Adds a frame with the locals of the method entry and empty stack. */
+        void sameFrame() {
+            final int delta = delta();
+            if (delta < 64) {
+                frames.u1(delta);
+            } else {
+                frames.u1(251).u2(delta);
+            }
+        }
+
+        /** Adds a frame with one more local of the given class and empty stack. */
+        void appendFrame(final int type) {
+            frames.u1(252).u2(delta()).u1(7).u2(type);
+        }
+
+        private int delta() {
+            final int offset = size();
+            final int delta = lastFrame < 0 ? offset : offset - lastFrame - 1;
+            lastFrame = offset;
+            frameCount++;
+            return delta;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.compiler;
+
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.process.AbstractDefaultProcessCommand;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Base class of the classes generated by the {@link ChainCompiler}. The
+ * generated subclass holds every command in a field of its concrete type and
+ * implements the chain executions and the single process step with one call
+ * site per command. The process loop is implemented here with a successor
+ * table computed from the transitions once.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+abstract class CompiledContainer<T extends Object> implements ProcessCommand<T> {
+
+    private static final int STOP = -1;
+
+    private final Map<String, Integer> index = new HashMap<>();
+    private final ProcessCommand<T>[] processCommands;
+    private final Map<String, Integer>[] successors;
+
+    @SuppressWarnings("unchecked")
+    protected CompiledContainer(final Object[] commands) {
+        processCommands = (ProcessCommand<T>[]) new ProcessCommand<?>[commands.length];
+        successors = (Map<String, Integer>[]) new Map<?, ?>[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            if (commands[i] instanceof ProcessCommand) {
+                processCommands[i] = (ProcessCommand<T>) commands[i];
+                final String processID = processCommands[i].getProcessID();
+                if (processID != null) {
+                    index.putIfAbsent(processID, i);
+                }
+            }
+        }
+        for (int i = 0; i < commands.length; i++) {
+            if (commands[i] instanceof AbstractDefaultProcessCommand
+                    && ((AbstractDefaultProcessCommand<T>) commands[i]).routesByTransitions()) {
+                successors[i] = new HashMap<>();
+                for (final Transition transition : processCommands[i].getTransitionList()) {
+                    if (transition.getReturnValue() != null) {
+                        successors[i].putIfAbsent(transition.getReturnValue(), indexOf(transition.getTarget()));
+                    }
+                }
+            }
+        }
+    }
+
+    /** Executes the process command at the given index.
+     *
+     * @param step
+     *            Index of the command.
+     * @param context
+     *            The context of the process.
+     * @return The result of the command. */
+    protected abstract String step(int step, Object context);
+
+    @Override
+    public String executeAsProcess(final String startCommand, final T context) {
+        int step = indexOf(startCommand);
+        while (step != STOP) {
+            final String result = step(step, context);
+            if (result == null) {
+                break;
+            }
+            step = successors[step] != null ? successors[step].getOrDefault(result, STOP)
+                    : indexOf(processCommands[step].findNext(result));
+        }
+        return null;
+    }
+
+    private int indexOf(final String processID) {
+        if (processID == null) {
+            return STOP;
+        }
+        return index.getOrDefault(processID, STOP);
+    }
+
+    @Override
+    public String executeAsProcess(final T context) {
+        return null;
+    }
+
+    @Override
+    public String getProcessID() {
+        return null;
+    }
+
+    @Override
+    public void setProcessID(final String processID) {
+        throw new IllegalArgumentException("ProcessID cannot be set on Container.");
+    }
+}
@@ -0,0 +1,56 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.interfaces;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Command which processes many parameter objects cheaper at once than one
+ * after the other, e.g. with one database query for all of them. A
+ * {@link CommandContainer} executing a batch with
+ * {@link BatchMode#COMMAND_MAJOR} calls it once with all parameter objects
+ * which did not fail yet.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public interface BatchCommand<T extends Object> extends Command<T> {
+
+    /** Executes the command for all parameter objects.
+     *
+     * @param parameterObjects
+     *            The parameter objects.
+     * @return The transition of each parameter object, in the same order. */
+    CommandTransition[] executeCommandBatch(List<T> parameterObjects);
+
+    /** Executes the command as a batch of one. */
+    @Override
+    default CommandTransition executeCommand(final T parameterObject) {
+        return executeCommandBatch(Collections.singletonList(parameterObject))[0];
+    }
+}
@@ -0,0 +1,48 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.interfaces;
+
+/** How {@link CommandContainer#executeBatch(java.util.List, BatchMode)}
+ * processes the parameter objects of a batch.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public enum BatchMode {
+
+    /** One parameter object after the other, each through the whole chain. */
+    SEQUENTIAL,
+
+    /** The parameter objects in parallel on the common ForkJoinPool. The
+     * commands have to be thread-safe. */
+    PARALLEL,
+
+    /** Each command processes all parameter objects before the next command
+     * runs. Parameter objects stop at their first FAILURE as usual. */
+    COMMAND_MAJOR
+}
@@ -27,6 +27,11 @@
 
 package org.mwolff.command.interfaces;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
 /** Interface of a command container. A command container implements all command
  * interfaces. So you can execute commandContainer as usual commands. Actually
  * this implements the composite pattern. So you can mix commands and command
@@ -62,4 +67,86 @@ public interface CommandContainer<T extends Object> extends ChainCommand<T>, Pro
      *            The id to find the command.
      * @return The command with the certain processID */
     Command<T> getCommandByProcessID(String processID);
+
+    /** Executes every parameter object like {@link #executeCommand(Object)},
+     * one after the other.
+     *
+     * @param parameterObjects
+     *            The batch.
+     * @return The ordinals of the {@link CommandTransition} of each parameter
+     *         object, in the order of the batch.
+     * @since 2.1.0 */
+    default byte[] executeBatch(final List<T> parameterObjects) {
+        return executeBatch(parameterObjects, BatchMode.SEQUENTIAL);
+    }
+
+    /** @see #executeBatch(List)
+     * @since 2.1.0 */
+    default byte[] executeBatch(final T[] parameterObjects) {
+        return executeBatch(Arrays.asList(parameterObjects), BatchMode.SEQUENTIAL);
+    }
+
+    /** Executes every parameter object like {@link #executeCommand(Object)}.
+     * Containers which cannot run command-major execute the batch
+     * sequentially in this mode.
+     *
+     * @param parameterObjects
+     *            The batch.
+     * @param mode
+     *            How to process the batch.
+     * @return The ordinals of the {@link CommandTransition} of each parameter
+     *         object, in the order of the batch.
+     * @since 2.1.0 */
+    default byte[] executeBatch(final List<T> parameterObjects, final BatchMode mode) {
+        return executeEach(parameterObjects, mode, this::executeCommand);
+    }
+
+    /** Executes every parameter object like
+     * {@link #executeCommandAsChain(Object)}, one after the other.
+     *
+     * @param parameterObjects
+     *            The batch.
+     * @return The ordinals of the {@link CommandTransition} of each parameter
+     *         object, in the order of the batch.
+     * @since 2.1.0 */
+    default byte[] executeBatchAsChain(final List<T> parameterObjects) {
+        return executeBatchAsChain(parameterObjects, BatchMode.SEQUENTIAL);
+    }
+
+    /** @see #executeBatchAsChain(List)
+     * @since 2.1.0 */
+    default byte[] executeBatchAsChain(final T[] parameterObjects) {
+        return executeBatchAsChain(Arrays.asList(parameterObjects), BatchMode.SEQUENTIAL);
+    }
+
+    /** Executes every parameter object like
+     * {@link #executeCommandAsChain(Object)}. Containers which cannot run
+     * command-major execute the batch sequentially in this mode.
+     *
+     * @param parameterObjects
+     *            The batch.
+     * @param mode
+     *            How to process the batch.
+     * @return The ordinals of the {@link CommandTransition} of each parameter
+     *         object, in the order of the batch.
+     * @since 2.1.0 */
+    default byte[] executeBatchAsChain(final List<T> parameterObjects, final BatchMode mode) {
+        return executeEach(parameterObjects, mode, this::executeCommandAsChain);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> byte[] executeEach(final List<T> parameterObjects, final BatchMode mode,
+            final Function<T, CommandTransition> execution) {
+        final Object[] batch = parameterObjects.toArray();
+        final byte[] results = new byte[batch.length];
+        if (mode == BatchMode.PARALLEL) {
+            IntStream.range(0, batch.length).parallel()
+                    .forEach(i -> results[i] = (byte) execution.apply((T) batch[i]).ordinal());
+        } else {
+            for (int i = 0; i < batch.length; i++) {
+                results[i] = (byte) execution.apply((T) batch[i]).ordinal();
+            }
+        }
+        return results;
+    }
 }
\ No newline at end of file
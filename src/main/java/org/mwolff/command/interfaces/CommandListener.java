@@ -0,0 +1,168 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.interfaces;
+
+/** Listener interface for observing the execution of commands inside a
+ * <code>CommandContainer</code>. A listener is notified before and after each
+ * command, if a command throws an exception and on every transition of a
+ * process. All methods have empty default implementations, so a listener only
+ * implements the callbacks it is interested in.
+ *
+ * Callbacks are paired: every <code>beforeExecution</code> is followed by
+ * exactly one <code>afterExecution</code> or <code>onFailure</code> on the same
+ * thread, every <code>beforeContainer</code> by exactly one
+ * <code>afterContainer</code>. Listeners may rely on this for measuring.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public interface CommandListener<T extends Object> {
+
+    /** Called when a container starts an execution, before the first command
+     * is executed.
+     *
+     * @param container
+     *            The container executing.
+     * @param parameterObject
+     *            The parameter object passed to the container. */
+    default void beforeContainer(final CommandContainer<T> container, final T parameterObject) {
+    }
+
+    /** Called when a container has finished an execution, even if a command
+     * has thrown an exception.
+     *
+     * @param container
+     *            The container executing.
+     * @param parameterObject
+     *            The parameter object passed to the container. */
+    default void afterContainer(final CommandContainer<T> container, final T parameterObject) {
+    }
+
+    /** Called before a command is executed.
+     *
+     * @param command
+     *            The command to execute.
+     * @param parameterObject
+     *            The parameter object passed to the command. */
+    default void beforeExecution(final Command<T> command, final T parameterObject) {
+    }
+
+    /** Called after a command is executed. For a process step the transition is
+     * NEXT if the process continues and DONE if the process stops.
+     *
+     * @param command
+     *            The command executed.
+     * @param parameterObject
+     *            The parameter object passed to the command.
+     * @param transition
+     *            The result of the command. */
+    default void afterExecution(final Command<T> command, final T parameterObject,
+            final CommandTransition transition) {
+    }
+
+    /** Called if a command throws an exception. The exception is rethrown by
+     * the container afterwards.
+     *
+     * @param command
+     *            The command executed.
+     * @param parameterObject
+     *            The parameter object passed to the command.
+     * @param exception
+     *            The exception thrown. */
+    default void onFailure(final Command<T> command, final T parameterObject, final RuntimeException exception) {
+    }
+
+    /** Called after a process step has been executed and the next step is
+     * determined.
+     *
+     * @param command
+     *            The process command executed.
+     * @param parameterObject
+     *            The parameter object passed to the command.
+     * @param result
+     *            The return value of the process command.
+     * @param next
+     *            The process ID of the next step, null if the process stops. */
+    default void onTransition(final ProcessCommand<T> command, final T parameterObject, final String result,
+            final String next) {
+    }
+
+    /** Combines two listeners to one. The first listener is notified first
+     * before and last after the execution, so the callbacks stay nested.
+     *
+     * @param first
+     *            The first listener.
+     * @param second
+     *            The second listener.
+     * @param <T>
+     *            Type of the parameter object.
+     * @return A listener notifying both. */
+    static <T> CommandListener<T> compose(final CommandListener<T> first, final CommandListener<T> second) {
+        return new CommandListener<T>() {
+
+            @Override
+            public void beforeContainer(final CommandContainer<T> container, final T parameterObject) {
+                first.beforeContainer(container, parameterObject);
+                second.beforeContainer(container, parameterObject);
+            }
+
+            @Override
+            public void afterContainer(final CommandContainer<T> container, final T parameterObject) {
+                second.afterContainer(container, parameterObject);
+                first.afterContainer(container, parameterObject);
+            }
+
+            @Override
+            public void beforeExecution(final Command<T> command, final T parameterObject) {
+                first.beforeExecution(command, parameterObject);
+                second.beforeExecution(command, parameterObject);
+            }
+
+            @Override
+            public void afterExecution(final Command<T> command, final T parameterObject,
+                    final CommandTransition transition) {
+                second.afterExecution(command, parameterObject, transition);
+                first.afterExecution(command, parameterObject, transition);
+            }
+
+            @Override
+            public void onFailure(final Command<T> command, final T parameterObject,
+                    final RuntimeException exception) {
+                second.onFailure(command, parameterObject, exception);
+                first.onFailure(command, parameterObject, exception);
+            }
+
+            @Override
+            public void onTransition(final ProcessCommand<T> command, final T parameterObject, final String result,
+                    final String next) {
+                first.onTransition(command, parameterObject, result, next);
+                second.onTransition(command, parameterObject, result, next);
+            }
+        };
+    }
+}
@@ -0,0 +1,168 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.mwolff.command.interfaces.CommandTransition;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters and latencies of one action. All methods are lock-free and may be
+ * called concurrently.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class ActionStatistics {
+
+    private final String name;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder exceptions = new LongAdder();
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder[] transitions = new LongAdder[CommandTransition.values().length];
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /** Constructor.
+     *
+     * @param name
+     *            The name of the action, the process ID or the class name. */
+    public ActionStatistics(final String name) {
+        this.name = name;
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = new LongAdder();
+        }
+    }
+
+    /** Records a finished execution.
+     *
+     * @param transition
+     *            The result of the execution.
+     * @param nanos
+     *            The duration in nanoseconds. */
+    public void record(final CommandTransition transition, final long nanos) {
+        record(transition, nanos, 1);
+    }
+
+    /** Records a sampled execution which stands for several executions. The
+     * counters are increased by the weight, the latency is recorded once.
+     *
+     * @param transition
+     *            The result of the execution.
+     * @param nanos
+     *            The duration in nanoseconds.
+     * @param weight
+     *            The number of executions the sample stands for. */
+    public void record(final CommandTransition transition, final long nanos, final long weight) {
+        invocations.add(weight);
+        transitions[transition.ordinal()].add(weight);
+        latencies.record(nanos / 1000);
+    }
+
+    /** Records an execution which ended with an exception.
+     *
+     * @param nanos
+     *            The duration in nanoseconds. */
+    public void recordException(final long nanos) {
+        recordException(nanos, 1);
+    }
+
+    /** Records a sampled execution which ended with an exception.
+     *
+     * @param nanos
+     *            The duration in nanoseconds.
+     * @param weight
+     *            The number of executions the sample stands for. */
+    public void recordException(final long nanos, final long weight) {
+        invocations.add(weight);
+        exceptions.add(weight);
+        latencies.record(nanos / 1000);
+    }
+
+    /** Records the bytes allocated during an execution.
+     *
+     * @param bytes
+     *            The bytes allocated by the executing thread. */
+    public void recordAllocation(final long bytes) {
+        allocations.increment();
+        allocatedBytes.add(bytes);
+    }
+
+    /** @return The name of the action. */
+    public String getName() {
+        return name;
+    }
+
+    /** @return The number of executions, extrapolated if sampled. */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /** @return The number of executions which ended with an exception. */
+    public long getExceptions() {
+        return exceptions.sum();
+    }
+
+    /** @return The number of executions with recorded allocations. */
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    /** @return The sum of the bytes allocated by all recorded executions. */
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    /** @param transition
+     *            The transition to count.
+     * @return The number of executions which ended with the transition. */
+    public long getCount(final CommandTransition transition) {
+        return transitions[transition.ordinal()].sum();
+    }
+
+    /** @return The histogram of the latencies in microseconds. */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /** @return An immutable snapshot of the actual values. */
+    public ActionStatisticsSnapshot snapshot() {
+        return new ActionStatisticsSnapshot(this);
+    }
+
+    /** Clears all counters. */
+    public void reset() {
+        invocations.reset();
+        exceptions.reset();
+        allocations.reset();
+        allocatedBytes.reset();
+        for (final LongAdder adder : transitions) {
+            adder.reset();
+        }
+        latencies.reset();
+    }
+}
@@ -0,0 +1,139 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import static org.mwolff.command.interfaces.CommandTransition.*;
+
+/** Immutable view of the statistics of one action. The getters are published
+ * as composite data over JMX.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class ActionStatisticsSnapshot {
+
+    private final String name;
+    private final long invocations;
+    private final long samples;
+    private final long successCount;
+    private final long failureCount;
+    private final long nextCount;
+    private final long doneCount;
+    private final long exceptionCount;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p90Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+    private final long allocatedBytes;
+    private final double meanAllocatedBytes;
+
+    ActionStatisticsSnapshot(final ActionStatistics statistics) {
+        final LatencyHistogram latencies = statistics.getLatencies();
+        name = statistics.getName();
+        invocations = statistics.getInvocations();
+        samples = latencies.getCount();
+        successCount = statistics.getCount(SUCCESS);
+        failureCount = statistics.getCount(FAILURE);
+        nextCount = statistics.getCount(NEXT);
+        doneCount = statistics.getCount(DONE);
+        exceptionCount = statistics.getExceptions();
+        meanMicros = latencies.getMean();
+        p50Micros = latencies.getPercentile(50);
+        p90Micros = latencies.getPercentile(90);
+        p99Micros = latencies.getPercentile(99);
+        maxMicros = latencies.getMax();
+        allocatedBytes = statistics.getAllocatedBytes();
+        final long allocations = statistics.getAllocations();
+        meanAllocatedBytes = allocations == 0 ? 0.0 : (double) allocatedBytes / allocations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public double getEstimatedTotalMicros() {
+        return meanMicros * invocations;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public long getNextCount() {
+        return nextCount;
+    }
+
+    public long getDoneCount() {
+        return doneCount;
+    }
+
+    public long getExceptionCount() {
+        return exceptionCount;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP90Micros() {
+        return p90Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getMeanAllocatedBytes() {
+        return meanAllocatedBytes;
+    }
+}
@@ -0,0 +1,261 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import com.sun.management.ThreadMXBean;
+import org.mwolff.command.CommandException;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandListener;
+import org.mwolff.command.interfaces.CommandTransition;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** Listener collecting call counts, transition counts and latencies for every
+ * action of a container. An action is identified by its process ID or, if it
+ * has none, by its class name. The statistics can be published as platform
+ * MBean.
+ *
+ * With a <code>SamplingPolicy</code> only some executions are measured and the
+ * counters are extrapolated. Unmeasured executions only count in a thread-local
+ * counter per action.
+ *
+ * Optionally the bytes allocated by the executing thread are recorded per
+ * execution as well. The bytes of a command include the bytes of all nested
+ * commands.
+ *
+ * <pre>
+ * final CommandStatistics&lt;Context&gt; statistics = new CommandStatistics&lt;&gt;("order");
+ * container.addCommandListener(statistics);
+ * statistics.registerMBean();
+ * </pre>
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class CommandStatistics<T extends Object> implements CommandListener<T>, CommandStatisticsMXBean {
+
+    /** Domain of the object names used for the MBeans. */
+    public static final String JMX_DOMAIN = "org.mwolff.command";
+
+    private final String containerName;
+
+    private static final class PerThread {
+        private final LongStack stack = new LongStack();
+        private final Map<String, SamplingPolicy.State> samplingStates = new HashMap<>();
+
+        private SamplingPolicy.State samplingState(final String name) {
+            SamplingPolicy.State state = samplingStates.get(name);
+            if (state == null) {
+                state = new SamplingPolicy.State();
+                samplingStates.put(name, state);
+            }
+            return state;
+        }
+    }
+
+    private static final long NOT_SAMPLED = 0;
+
+    private final ThreadMXBean threadMXBean;
+    private final SamplingPolicy samplingPolicy;
+    private final ConcurrentMap<String, ActionStatistics> actions = new ConcurrentHashMap<>();
+    private final ThreadLocal<PerThread> perThread = ThreadLocal.withInitial(PerThread::new);
+    private ObjectName objectName;
+
+    /** Constructor.
+     *
+     * @param containerName
+     *            Name of the container, used for the MBean. */
+    public CommandStatistics(final String containerName) {
+        this(containerName, false);
+    }
+
+    /** Constructor.
+     *
+     * @param containerName
+     *            Name of the container, used for the MBean.
+     * @param trackAllocations
+     *            If true, the bytes allocated per execution are recorded.
+     * @throws UnsupportedOperationException
+     *             if the JVM cannot measure allocations per thread. */
+    public CommandStatistics(final String containerName, final boolean trackAllocations) {
+        this(containerName, trackAllocations, SamplingPolicy.always());
+    }
+
+    /** Constructor.
+     *
+     * @param containerName
+     *            Name of the container, used for the MBean.
+     * @param trackAllocations
+     *            If true, the bytes allocated per measured execution are
+     *            recorded.
+     * @param samplingPolicy
+     *            Decides which executions are measured.
+     * @throws UnsupportedOperationException
+     *             if the JVM cannot measure allocations per thread. */
+    public CommandStatistics(final String containerName, final boolean trackAllocations,
+            final SamplingPolicy samplingPolicy) {
+        this.containerName = containerName;
+        this.threadMXBean = trackAllocations ? allocationMXBean() : null;
+        this.samplingPolicy = samplingPolicy;
+    }
+
+    private static ThreadMXBean allocationMXBean() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof ThreadMXBean) || !((ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("Allocation tracking is not supported by this JVM.");
+        }
+        final ThreadMXBean allocationBean = (ThreadMXBean) bean;
+        if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return allocationBean;
+    }
+
+    /** @return true if the allocated bytes are recorded. */
+    public boolean isTrackingAllocations() {
+        return threadMXBean != null;
+    }
+
+    @Override
+    public void beforeExecution(final Command<T> command, final T parameterObject) {
+        final PerThread state = perThread.get();
+        final SamplingPolicy.State samplingState = state.samplingState(ActionNames.of(command));
+        if (!samplingPolicy.sample(samplingState)) {
+            state.stack.push(NOT_SAMPLED);
+            return;
+        }
+        final long weight = SamplingPolicy.weight(samplingState);
+        if (threadMXBean != null) {
+            state.stack.push(threadMXBean.getCurrentThreadAllocatedBytes());
+        }
+        state.stack.push(System.nanoTime());
+        state.stack.push(weight);
+    }
+
+    @Override
+    public void afterExecution(final Command<T> command, final T parameterObject,
+            final CommandTransition transition) {
+        final LongStack stack = perThread.get().stack;
+        final long weight = stack.pop();
+        if (weight == NOT_SAMPLED) {
+            return;
+        }
+        final long duration = System.nanoTime() - stack.pop();
+        final ActionStatistics statistics = getActionStatistics(ActionNames.of(command));
+        statistics.record(transition, duration, weight);
+        recordAllocation(stack, statistics);
+    }
+
+    @Override
+    public void onFailure(final Command<T> command, final T parameterObject, final RuntimeException exception) {
+        final LongStack stack = perThread.get().stack;
+        final long weight = stack.pop();
+        if (weight == NOT_SAMPLED) {
+            return;
+        }
+        final long duration = System.nanoTime() - stack.pop();
+        final ActionStatistics statistics = getActionStatistics(ActionNames.of(command));
+        statistics.recordException(duration, weight);
+        recordAllocation(stack, statistics);
+    }
+
+    private void recordAllocation(final LongStack stack, final ActionStatistics statistics) {
+        if (threadMXBean != null) {
+            statistics.recordAllocation(threadMXBean.getCurrentThreadAllocatedBytes() - stack.pop());
+        }
+    }
+
+    /** Gets the statistics of an action. The statistics is created if it does
+     * not exist.
+     *
+     * @param name
+     *            The name of the action.
+     * @return The statistics of the action. */
+    public ActionStatistics getActionStatistics(final String name) {
+        final ActionStatistics statistics = actions.get(name);
+        if (statistics != null) {
+            return statistics;
+        }
+        return actions.computeIfAbsent(name, ActionStatistics::new);
+    }
+
+    @Override
+    public String getContainerName() {
+        return containerName;
+    }
+
+    @Override
+    public Map<String, ActionStatisticsSnapshot> getActions() {
+        final Map<String, ActionStatisticsSnapshot> result = new TreeMap<>();
+        actions.forEach((name, statistics) -> result.put(name, statistics.snapshot()));
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        actions.values().forEach(ActionStatistics::reset);
+    }
+
+    /** Registers this statistics at the platform MBean server with the name
+     * <code>org.mwolff.command:type=CommandStatistics,name=containerName</code>.
+     *
+     * @return The object name used for registration. */
+    public synchronized ObjectName registerMBean() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(JMX_DOMAIN + ":type=CommandStatistics,name="
+                    + ObjectName.quote(containerName));
+            server.registerMBean(this, name);
+            objectName = name;
+            return name;
+        } catch (final JMException e) {
+            throw new CommandException("Cannot register statistics of " + containerName, e);
+        }
+    }
+
+    /** Removes this statistics from the platform MBean server if registered. */
+    public synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        } catch (final JMException e) {
+            throw new CommandException("Cannot unregister statistics of " + containerName, e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+package org.mwolff.command.monitor;
+
+/** Escaping of names written by the exporters. */
+final class Escaping {
+
+    private Escaping() {
+    }
+
+    /** Escapes a value for a JSON string.
+     *
+     * @param value
+     *            The value, may be <code>null</code>.
+     * @return The escaped value, empty for <code>null</code>. */
+    static String json(final String value) {
+        if (value == null) {
+            return "";
+        }
+        final StringBuilder escaped = new StringBuilder(value.length());
+        for (final char character : value.toCharArray()) {
+            switch (character) {
+            case '"':
+                escaped.append("\\\"");
+                break;
+            case '\\':
+                escaped.append("\\\\");
+                break;
+            case '\n':
+                escaped.append("\\n");
+                break;
+            case '\r':
+                escaped.append("\\r");
+                break;
+            case '\t':
+                escaped.append("\\t");
+                break;
+            default:
+                if (character < 0x20) {
+                    escaped.append(String.format("\\u%04x", (int) character));
+                } else {
+                    escaped.append(character);
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    /** Escapes a value for a quoted Graphviz DOT string. A line feed becomes a
+     * line break of the label, all other control characters are replaced by
+     * a blank, because DOT knows no escapes for them.
+     *
+     * @param value
+     *            The value, may be <code>null</code>.
+     * @return The escaped value, empty for <code>null</code>. */
+    static String dot(final String value) {
+        if (value == null) {
+            return "";
+        }
+        final StringBuilder escaped = new StringBuilder(value.length());
+        for (final char character : value.toCharArray()) {
+            switch (character) {
+            case '"':
+                escaped.append("\\\"");
+                break;
+            case '\\':
+                escaped.append("\\\\");
+                break;
+            case '\n':
+                escaped.append("\\n");
+                break;
+            default:
+                escaped.append(character < 0x20 ? ' ' : character);
+            }
+        }
+        return escaped.toString();
+    }
+}
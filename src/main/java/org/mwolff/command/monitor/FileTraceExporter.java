@@ -0,0 +1,95 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.mwolff.command.CommandException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/** Appends completed traces to a local file. Every span is written as one line
+ * of JSON. The file is opened on the first trace and kept open; the buffered
+ * writer is flushed after every trace. Exports are serialized, so with many
+ * threads the exporter is meant for development and debugging rather than for
+ * production load.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class FileTraceExporter implements TraceExporter, Closeable {
+
+    private final Path file;
+    private Writer writer;
+
+    /** Constructor.
+     *
+     * @param file
+     *            The file to append to. It is created if it does not exist. */
+    public FileTraceExporter(final Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void export(final List<Span> spans) {
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+            for (final Span span : spans) {
+                writer.write(span.toString());
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+        } catch (final IOException e) {
+            close();
+            throw new CommandException("Cannot write trace to " + file, e);
+        }
+    }
+
+    /** Closes the file. It is opened again by the next trace. */
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (final IOException e) {
+            // Every trace is flushed already.
+        } finally {
+            writer = null;
+        }
+    }
+}
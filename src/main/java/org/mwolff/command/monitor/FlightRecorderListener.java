@@ -0,0 +1,166 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandListener;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+
+import jdk.jfr.EventType;
+
+import java.util.Arrays;
+
+/** Listener emitting Java Flight Recorder events for every command and every
+ * process step executed. The events are switched on and off with the usual
+ * JFR settings. If no recording is running nothing is allocated. Nested
+ * containers should share the same listener to get the right nesting depth.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class FlightRecorderListener<T extends Object> implements CommandListener<T> {
+
+    private static final EventType COMMAND_EVENT = EventType.getEventType(CommandExecutedEvent.class);
+    private static final EventType STEP_EVENT = EventType.getEventType(ProcessStepEvent.class);
+
+    private static final class Frames {
+        private Command<?>[] commands = new Command<?>[16];
+        private CommandExecutedEvent[] commandEvents = new CommandExecutedEvent[16];
+        private ProcessStepEvent[] stepEvents = new ProcessStepEvent[16];
+        private int depth;
+
+        private void push(final Command<?> command, final CommandExecutedEvent commandEvent,
+                final ProcessStepEvent stepEvent) {
+            if (depth == commandEvents.length) {
+                commands = Arrays.copyOf(commands, depth * 2);
+                commandEvents = Arrays.copyOf(commandEvents, depth * 2);
+                stepEvents = Arrays.copyOf(stepEvents, depth * 2);
+            }
+            commands[depth] = command;
+            commandEvents[depth] = commandEvent;
+            stepEvents[depth] = stepEvent;
+            depth++;
+        }
+
+        private void pop() {
+            depth--;
+            commands[depth] = null;
+            commandEvents[depth] = null;
+            stepEvents[depth] = null;
+        }
+
+        /** @return true if the command was pushed last, i.e. the events were
+         *         enabled when it started. */
+        private boolean isTop(final Command<?> command) {
+            return depth > 0 && commands[depth - 1] == command;
+        }
+    }
+
+    private final ThreadLocal<Frames> frames = new ThreadLocal<>();
+
+    @Override
+    public void beforeExecution(final Command<T> command, final T parameterObject) {
+        final boolean commandEnabled = COMMAND_EVENT.isEnabled();
+        final boolean stepEnabled = STEP_EVENT.isEnabled();
+        if (!commandEnabled && !stepEnabled) {
+            return;
+        }
+        CommandExecutedEvent commandEvent = null;
+        if (commandEnabled) {
+            commandEvent = new CommandExecutedEvent();
+            commandEvent.begin();
+        }
+        ProcessStepEvent stepEvent = null;
+        if (stepEnabled) {
+            stepEvent = new ProcessStepEvent();
+            stepEvent.begin();
+        }
+        Frames actual = frames.get();
+        if (actual == null) {
+            actual = new Frames();
+            frames.set(actual);
+        }
+        actual.push(command, commandEvent, stepEvent);
+    }
+
+    @Override
+    public void onTransition(final ProcessCommand<T> command, final T parameterObject, final String result,
+            final String next) {
+        final Frames actual = frames.get();
+        if (actual == null || !actual.isTop(command)) {
+            return;
+        }
+        final int index = actual.depth - 1;
+        final ProcessStepEvent stepEvent = actual.stepEvents[index];
+        actual.commandEvents[index] = null;
+        if (stepEvent != null) {
+            stepEvent.end();
+            if (stepEvent.shouldCommit()) {
+                stepEvent.commandClass = command.getClass();
+                stepEvent.processID = command.getProcessID();
+                stepEvent.result = result;
+                stepEvent.transition = next;
+                stepEvent.depth = index;
+                stepEvent.commit();
+            }
+        }
+    }
+
+    @Override
+    public void afterExecution(final Command<T> command, final T parameterObject,
+            final CommandTransition transition) {
+        finish(command, transition.name());
+    }
+
+    @Override
+    public void onFailure(final Command<T> command, final T parameterObject, final RuntimeException exception) {
+        finish(command, exception.getClass().getName());
+    }
+
+    private void finish(final Command<T> command, final String transition) {
+        final Frames actual = frames.get();
+        if (actual == null || !actual.isTop(command)) {
+            return;
+        }
+        final CommandExecutedEvent commandEvent = actual.commandEvents[actual.depth - 1];
+        if (commandEvent != null) {
+            commandEvent.end();
+            if (commandEvent.shouldCommit()) {
+                commandEvent.commandClass = command.getClass();
+                commandEvent.processID = command instanceof ProcessCommand
+                        ? ((ProcessCommand<?>) command).getProcessID()
+                        : null;
+                commandEvent.transition = transition;
+                commandEvent.depth = actual.depth - 1;
+                commandEvent.commit();
+            }
+        }
+        actual.pop();
+    }
+}
@@ -0,0 +1,226 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandContainer;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.interfaces.Transition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** Exports the actions and transitions of a container as Graphviz DOT or JSON
+ * graph. If statistics are given, nodes are annotated with invocations and
+ * latencies and edges with the number of times they were taken. Nodes are
+ * filled from white to red by their mean latency, edges are drawn thicker the
+ * more often they were taken.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class ProcessGraphExporter<T extends Object> {
+
+    private final CommandContainer<T> container;
+    private CommandStatistics<T> commandStatistics;
+    private TransitionStatistics<T> transitionStatistics;
+
+    /** Constructor.
+     *
+     * @param container
+     *            The container to export. Only a
+     *            {@link DefaultCommandContainer} exposes its actions. */
+    public ProcessGraphExporter(final CommandContainer<T> container) {
+        if (!(container instanceof DefaultCommandContainer)) {
+            throw new IllegalArgumentException("Only a DefaultCommandContainer can be exported.");
+        }
+        this.container = container;
+    }
+
+    /** @param statistics
+     *            Statistics used to annotate the nodes.
+     * @return this */
+    public ProcessGraphExporter<T> withStatistics(final CommandStatistics<T> statistics) {
+        this.commandStatistics = statistics;
+        return this;
+    }
+
+    /** @param statistics
+     *            Statistics used to annotate the edges.
+     * @return this */
+    public ProcessGraphExporter<T> withStatistics(final TransitionStatistics<T> statistics) {
+        this.transitionStatistics = statistics;
+        return this;
+    }
+
+    /** @return The graph in the Graphviz DOT language. */
+    public String toDot() {
+        final Graph graph = new Graph();
+        final StringBuilder dot = new StringBuilder("digraph process {\n");
+        dot.append("  node [shape=box, style=filled, fillcolor=white];\n");
+        for (final Node node : graph.nodes.values()) {
+            dot.append("  \"").append(Escaping.dot(node.name)).append("\" [label=\"")
+                    .append(Escaping.dot(node.name));
+            if (node.statistics != null) {
+                dot.append(String.format(Locale.ROOT, "\\n%d calls\\nmean %.1f us, p99 %d us",
+                        node.statistics.getInvocations(), node.statistics.getMeanMicros(),
+                        node.statistics.getP99Micros()));
+            }
+            dot.append('"');
+            if (!node.declared) {
+                dot.append(", shape=doublecircle");
+            }
+            if (graph.maxMean > 0 && node.statistics != null) {
+                dot.append(String.format(Locale.ROOT, ", fillcolor=\"0.000 %.3f 1.000\"",
+                        node.statistics.getMeanMicros() / graph.maxMean));
+            }
+            dot.append("];\n");
+        }
+        for (final Edge edge : graph.edges) {
+            dot.append("  \"").append(Escaping.dot(edge.from)).append("\" -> \"").append(Escaping.dot(edge.to))
+                    .append("\" [label=\"").append(Escaping.dot(edge.returnValue));
+            if (transitionStatistics != null) {
+                dot.append(" (").append(edge.count).append(')');
+            }
+            dot.append('"');
+            if (graph.maxCount > 0) {
+                dot.append(String.format(Locale.ROOT, ", penwidth=%.2f", 1.0 + 4.0 * edge.count / graph.maxCount));
+            }
+            dot.append("];\n");
+        }
+        return dot.append("}\n").toString();
+    }
+
+    /** @return The graph as JSON object with the arrays
+     *         <code>nodes</code> and <code>edges</code>. */
+    public String toJson() {
+        final Graph graph = new Graph();
+        final StringBuilder json = new StringBuilder("{\"nodes\":[");
+        String separator = "";
+        for (final Node node : graph.nodes.values()) {
+            json.append(separator).append("{\"id\":\"").append(Escaping.json(node.name)).append('"');
+            if (node.className != null) {
+                json.append(",\"class\":\"").append(Escaping.json(node.className)).append('"');
+            }
+            if (node.statistics != null) {
+                json.append(String.format(Locale.ROOT,
+                        ",\"invocations\":%d,\"meanMicros\":%.1f,\"p50Micros\":%d,\"p99Micros\":%d,"
+                                + "\"maxMicros\":%d",
+                        node.statistics.getInvocations(), node.statistics.getMeanMicros(),
+                        node.statistics.getP50Micros(), node.statistics.getP99Micros(),
+                        node.statistics.getMaxMicros()));
+            }
+            json.append('}');
+            separator = ",";
+        }
+        json.append("],\"edges\":[");
+        separator = "";
+        for (final Edge edge : graph.edges) {
+            json.append(separator).append("{\"from\":\"").append(Escaping.json(edge.from))
+                    .append("\",\"returnValue\":\"").append(Escaping.json(edge.returnValue))
+                    .append("\",\"to\":\"").append(Escaping.json(edge.to)).append('"');
+            if (transitionStatistics != null) {
+                json.append(",\"count\":").append(edge.count);
+            }
+            json.append('}');
+            separator = ",";
+        }
+        return json.append("]}").toString();
+    }
+
+    private static class Node {
+
+        private final String name;
+        private final String className;
+        private final boolean declared;
+        private final ActionStatisticsSnapshot statistics;
+
+        Node(final String name, final String className, final boolean declared,
+                final ActionStatisticsSnapshot statistics) {
+            this.name = name;
+            this.className = className;
+            this.declared = declared;
+            this.statistics = statistics;
+        }
+    }
+
+    private static class Edge {
+
+        private final String from;
+        private final String returnValue;
+        private final String to;
+        private final long count;
+
+        Edge(final String from, final String returnValue, final String to, final long count) {
+            this.from = from;
+            this.returnValue = returnValue;
+            this.to = to;
+            this.count = count;
+        }
+    }
+
+    /** Snapshot of the container and the statistics. */
+    private class Graph {
+
+        private final Map<String, Node> nodes = new LinkedHashMap<>();
+        private final List<Edge> edges = new ArrayList<>();
+        private double maxMean;
+        private long maxCount;
+
+        Graph() {
+            final Map<String, ActionStatisticsSnapshot> actions = commandStatistics == null
+                    ? Collections.emptyMap() : commandStatistics.getActions();
+            for (final Command<T> command : ((DefaultCommandContainer<T>) container).getCommands()) {
+                final String name = ActionNames.of(command);
+                final ActionStatisticsSnapshot snapshot = actions.get(name);
+                nodes.put(name, new Node(name, command.getClass().getName(), true, snapshot));
+                if (snapshot != null) {
+                    maxMean = Math.max(maxMean, snapshot.getMeanMicros());
+                }
+                if (command instanceof ProcessCommand) {
+                    final ProcessCommand<T> processCommand = (ProcessCommand<T>) command;
+                    for (final Transition transition : processCommand.getTransitionList()) {
+                        final long count = transitionStatistics == null ? 0
+                                : transitionStatistics.getCount(processCommand, transition.getReturnValue(),
+                                        transition.getTarget());
+                        maxCount = Math.max(maxCount, count);
+                        edges.add(new Edge(name, transition.getReturnValue(), transition.getTarget(), count));
+                    }
+                }
+            }
+            for (final Edge edge : edges) {
+                nodes.putIfAbsent(edge.to, new Node(edge.to, null, false, null));
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/** Decides which executions are measured by <code>CommandStatistics</code>.
+ * Every thread counts the executions of each action in a plain counter. A
+ * measured execution stands for all executions of the action by the thread
+ * since its last measured one, so the counts are extrapolated while only the
+ * sampled executions pay for taking the time.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public abstract class SamplingPolicy {
+
+    /** State of a sampling policy per thread and action. */
+    static final class State {
+        long unsampled;
+        long epoch;
+    }
+
+    private static final SamplingPolicy ALWAYS = new SamplingPolicy() {
+
+        @Override
+        boolean sample(final State state) {
+            return true;
+        }
+    };
+
+    private static final class EveryNth extends SamplingPolicy {
+        private final long n;
+
+        private EveryNth(final long n) {
+            this.n = n;
+        }
+
+        @Override
+        boolean sample(final State state) {
+            return ++state.unsampled >= n;
+        }
+    }
+
+    private static final class Interval extends SamplingPolicy {
+
+        private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "command-sampling-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private volatile long epoch;
+
+        private Interval(final Duration interval) {
+            final WeakReference<Interval> reference = new WeakReference<>(this);
+            final ScheduledFuture<?>[] future = new ScheduledFuture<?>[1];
+            final long nanos = interval.toNanos();
+            synchronized (future) {
+                future[0] = TICKER.scheduleAtFixedRate(() -> {
+                    final Interval policy = reference.get();
+                    if (policy != null) {
+                        policy.epoch++;
+                    } else {
+                        synchronized (future) {
+                            future[0].cancel(false);
+                        }
+                    }
+                }, nanos, nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        boolean sample(final State state) {
+            state.unsampled++;
+            final long actualEpoch = epoch;
+            if (actualEpoch != state.epoch) {
+                state.epoch = actualEpoch;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    SamplingPolicy() {
+    }
+
+    /** @return Policy measuring every execution. */
+    public static SamplingPolicy always() {
+        return ALWAYS;
+    }
+
+    /** Measures one out of n executions per thread and action.
+     *
+     * @param n
+     *            The sampling rate. 1 measures every execution.
+     * @return The policy. */
+    public static SamplingPolicy everyNth(final int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Sampling rate must be positive.");
+        }
+        return n == 1 ? ALWAYS : new EveryNth(n);
+    }
+
+    /** Measures the first execution per thread and action after every
+     * interval.
+     *
+     * @param interval
+     *            The time between two samples.
+     * @return The policy. */
+    public static SamplingPolicy every(final Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Sampling interval must be positive.");
+        }
+        return new Interval(interval);
+    }
+
+    /** Decides whether the actual execution is measured. Implementations count
+     * the execution in <code>state.unsampled</code>.
+     *
+     * @param state
+     *            The state of the calling thread and the action.
+     * @return true if the execution is measured. */
+    abstract boolean sample(State state);
+
+    /** Returns the number of executions the actual sample stands for and resets
+     * the counter.
+     *
+     * @param state
+     *            The state of the calling thread and the action.
+     * @return The weight of the sample, at least 1. */
+    static long weight(final State state) {
+        final long weight = Math.max(1, state.unsampled);
+        state.unsampled = 0;
+        return weight;
+    }
+}
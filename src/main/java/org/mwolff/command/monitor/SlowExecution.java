@@ -0,0 +1,91 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** An execution of a container which exceeded a threshold. Contains the path
+ * through the container: all actions visited with their outcome, the
+ * transitions taken and the duration of every step.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class SlowExecution {
+
+    private final long timestamp;
+    private final long durationNanos;
+    private final String reason;
+    private final List<Span> steps;
+
+    /** Constructor.
+     *
+     * @param timestamp
+     *            End of the execution in milliseconds since the epoch.
+     * @param durationNanos
+     *            Duration of the whole execution.
+     * @param reason
+     *            The threshold exceeded.
+     * @param steps
+     *            The path of the execution. The first step is the container
+     *            itself. */
+    public SlowExecution(final long timestamp, final long durationNanos, final String reason,
+            final List<Span> steps) {
+        this.timestamp = timestamp;
+        this.durationNanos = durationNanos;
+        this.reason = reason;
+        this.steps = new ArrayList<>(steps);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public List<Span> getSteps() {
+        return new ArrayList<>(steps);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(reason).append(" (").append(durationNanos / 1000).append(" us)");
+        for (final Span step : steps) {
+            builder.append(System.lineSeparator()).append(step);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,187 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandContainer;
+import org.mwolff.command.interfaces.CommandListener;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Listener detecting slow executions of a container. An execution is slow if
+ * the whole execution exceeds the container threshold or a single action
+ * exceeds its action threshold. Slow executions are kept with their complete
+ * path in a bounded lock-free buffer; the oldest entries are overwritten.
+ *
+ * The path of every execution is recorded in a preallocated buffer per
+ * thread. Objects are only created for slow executions.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class SlowExecutionDetector<T extends Object> implements CommandListener<T> {
+
+    private final long containerThreshold;
+    private final Map<String, Long> actionThresholds = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowExecution> slowExecutions;
+    private final AtomicLong written = new AtomicLong();
+    private final ThreadLocal<SpanBuffer> buffers;
+    private final ThreadLocal<String[]> violations = ThreadLocal.withInitial(() -> new String[1]);
+
+    /** Constructor.
+     *
+     * @param containerThreshold
+     *            Maximum duration of a whole container execution.
+     * @param capacity
+     *            Number of slow executions kept.
+     * @param maxSteps
+     *            Maximum number of steps recorded per execution. */
+    public SlowExecutionDetector(final Duration containerThreshold, final int capacity, final int maxSteps) {
+        if (capacity < 1 || maxSteps < 1) {
+            throw new IllegalArgumentException("Capacity and steps must be positive.");
+        }
+        this.containerThreshold = containerThreshold.toNanos();
+        this.slowExecutions = new AtomicReferenceArray<>(capacity);
+        this.buffers = ThreadLocal.withInitial(() -> new SpanBuffer(maxSteps));
+    }
+
+    /** Constructor keeping 100 slow executions with up to 1024 steps.
+     *
+     * @param containerThreshold
+     *            Maximum duration of a whole container execution. */
+    public SlowExecutionDetector(final Duration containerThreshold) {
+        this(containerThreshold, 100, Tracer.DEFAULT_CAPACITY);
+    }
+
+    /** Sets the threshold of a single action.
+     *
+     * @param actionName
+     *            Process ID or class name of the action.
+     * @param threshold
+     *            Maximum duration of one execution of the action.
+     * @return this */
+    public SlowExecutionDetector<T> setActionThreshold(final String actionName, final Duration threshold) {
+        actionThresholds.put(actionName, threshold.toNanos());
+        return this;
+    }
+
+    @Override
+    public void beforeContainer(final CommandContainer<T> container, final T parameterObject) {
+        buffers.get().beginContainer(ActionNames.of(container), System.nanoTime());
+    }
+
+    @Override
+    public void afterContainer(final CommandContainer<T> container, final T parameterObject) {
+        final SpanBuffer buffer = buffers.get();
+        if (buffer.endContainer(System.nanoTime())) {
+            complete(buffer);
+        }
+    }
+
+    @Override
+    public void beforeExecution(final Command<T> command, final T parameterObject) {
+        buffers.get().begin(ActionNames.of(command), System.nanoTime());
+    }
+
+    @Override
+    public void onTransition(final ProcessCommand<T> command, final T parameterObject, final String result,
+            final String next) {
+        buffers.get().transition(result, next);
+    }
+
+    @Override
+    public void afterExecution(final Command<T> command, final T parameterObject,
+            final CommandTransition transition) {
+        end(transition.name());
+    }
+
+    @Override
+    public void onFailure(final Command<T> command, final T parameterObject, final RuntimeException exception) {
+        end(exception.getClass().getName());
+    }
+
+    private void end(final String outcome) {
+        final SpanBuffer buffer = buffers.get();
+        final int index = buffer.current();
+        final boolean complete = buffer.end(outcome, System.nanoTime());
+        if (index != SpanBuffer.DROPPED && !actionThresholds.isEmpty()) {
+            final Long threshold = actionThresholds.get(buffer.name(index));
+            final String[] violation = violations.get();
+            if (threshold != null && buffer.duration(index) > threshold && violation[0] == null) {
+                violation[0] = "Action " + buffer.name(index) + " exceeded " + threshold / 1000 + " us";
+            }
+        }
+        if (complete) {
+            complete(buffer);
+        }
+    }
+
+    private void complete(final SpanBuffer buffer) {
+        final String[] violation = violations.get();
+        final long duration = buffer.duration(0);
+        String reason = violation[0];
+        if (reason == null && duration > containerThreshold) {
+            reason = "Execution of " + buffer.name(0) + " exceeded " + containerThreshold / 1000 + " us";
+        }
+        if (reason != null) {
+            final SlowExecution slowExecution = new SlowExecution(System.currentTimeMillis(), duration, reason,
+                    buffer.toSpans(0));
+            final long index = written.getAndIncrement();
+            slowExecutions.set((int) (index % slowExecutions.length()), slowExecution);
+        }
+        violation[0] = null;
+        buffer.clear();
+    }
+
+    /** @return The slow executions kept, the oldest first. */
+    public List<SlowExecution> getSlowExecutions() {
+        final long end = written.get();
+        final int capacity = slowExecutions.length();
+        final List<SlowExecution> result = new ArrayList<>();
+        for (long i = Math.max(0, end - capacity); i < end; i++) {
+            final SlowExecution slowExecution = slowExecutions.get((int) (i % capacity));
+            if (slowExecution != null) {
+                result.add(slowExecution);
+            }
+        }
+        return result;
+    }
+
+    /** @return The number of slow executions detected since creation. */
+    public long getDetectedCount() {
+        return written.get();
+    }
+}
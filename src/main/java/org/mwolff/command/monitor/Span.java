@@ -0,0 +1,117 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+/** A finished span of a trace. A span is the execution of one command. Spans
+ * of nested commands refer to the span of the enclosing command by the parent
+ * ID.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class Span {
+
+    private final long traceID;
+    private final int spanID;
+    private final int parentID;
+    private final String name;
+    private final long startNanos;
+    private final long durationNanos;
+    private final String outcome;
+    private final String transition;
+
+    /** Constructor.
+     *
+     * @param traceID
+     *            ID of the trace the span belongs to.
+     * @param spanID
+     *            ID of the span, unique within the trace, starting with 1.
+     * @param parentID
+     *            ID of the parent span, 0 for the root span.
+     * @param name
+     *            Name of the action executed.
+     * @param startNanos
+     *            Start of the span relative to the start of the trace.
+     * @param durationNanos
+     *            Duration of the span.
+     * @param outcome
+     *            Transition or exception the command ended with.
+     * @param transition
+     *            Result and next step of a process step, null otherwise. */
+    public Span(final long traceID, final int spanID, final int parentID, final String name, final long startNanos,
+            final long durationNanos, final String outcome, final String transition) {
+        this.traceID = traceID;
+        this.spanID = spanID;
+        this.parentID = parentID;
+        this.name = name;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.outcome = outcome;
+        this.transition = transition;
+    }
+
+    public long getTraceID() {
+        return traceID;
+    }
+
+    public int getSpanID() {
+        return spanID;
+    }
+
+    public int getParentID() {
+        return parentID;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public String getTransition() {
+        return transition;
+    }
+
+    @Override
+    public String toString() {
+        return "{\"trace\":" + traceID + ",\"span\":" + spanID + ",\"parent\":" + parentID + ",\"name\":\""
+                + Escaping.json(name) + "\",\"start\":" + startNanos + ",\"duration\":" + durationNanos
+                + ",\"outcome\":\"" + Escaping.json(outcome) + "\""
+                + (transition == null ? "" : ",\"transition\":\"" + Escaping.json(transition) + "\"") + "}";
+    }
+}
@@ -0,0 +1,178 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Preallocated buffer recording the spans of one trace on one thread. The
+ * buffer is reused for every trace. Spans exceeding the capacity are dropped
+ * instead of overwriting the first ones, so a trace always keeps its root; the
+ * drops are counted, see {@link Tracer#getDroppedSpans()}. Not thread-safe. */
+final class SpanBuffer {
+
+    static final int DROPPED = -1;
+
+    private final int capacity;
+    private final String[] names;
+    private final int[] parents;
+    private final long[] starts;
+    private final long[] durations;
+    private final String[] outcomes;
+    private final String[] results;
+    private final String[] nexts;
+    private int[] open = new int[16];
+    private int depth;
+    private int size;
+    private int dropped;
+    private boolean containerRoot;
+
+    SpanBuffer(final int capacity) {
+        this.capacity = capacity;
+        names = new String[capacity];
+        parents = new int[capacity];
+        starts = new long[capacity];
+        durations = new long[capacity];
+        outcomes = new String[capacity];
+        results = new String[capacity];
+        nexts = new String[capacity];
+    }
+
+    /** Opens the root span for a container if no trace is running.
+     *
+     * @return true if the root span was opened. */
+    boolean beginContainer(final String name, final long now) {
+        if (depth != 0) {
+            return false;
+        }
+        containerRoot = true;
+        begin(name, now);
+        return true;
+    }
+
+    /** Closes the root span of a container if it is the only open span.
+     *
+     * @return true if the trace is complete. */
+    boolean endContainer(final long now) {
+        if (depth != 1 || !containerRoot) {
+            return false;
+        }
+        containerRoot = false;
+        return end("", now) && depth == 0;
+    }
+
+    /** Opens a span. */
+    void begin(final String name, final long now) {
+        if (depth == open.length) {
+            open = Arrays.copyOf(open, depth * 2);
+        }
+        if (size == capacity) {
+            dropped++;
+            open[depth++] = DROPPED;
+            return;
+        }
+        names[size] = name;
+        parents[size] = depth == 0 ? DROPPED : open[depth - 1];
+        starts[size] = now;
+        durations[size] = 0;
+        outcomes[size] = null;
+        results[size] = null;
+        nexts[size] = null;
+        open[depth++] = size++;
+    }
+
+    /** Notes the transition of a process step on the innermost open span. */
+    void transition(final String result, final String next) {
+        final int index = open[depth - 1];
+        if (index != DROPPED) {
+            results[index] = result;
+            nexts[index] = next;
+        }
+    }
+
+    /** Closes the innermost open span.
+     *
+     * @return true if the trace is complete. */
+    boolean end(final String outcome, final long now) {
+        final int index = open[--depth];
+        if (index != DROPPED) {
+            durations[index] = now - starts[index];
+            outcomes[index] = outcome;
+        }
+        return depth == 0;
+    }
+
+    /** @return the index of the innermost open span or DROPPED. */
+    int current() {
+        return depth == 0 ? DROPPED : open[depth - 1];
+    }
+
+    String name(final int index) {
+        return names[index];
+    }
+
+    long duration(final int index) {
+        return durations[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int dropped() {
+        return dropped;
+    }
+
+    /** Converts the recorded spans of a completed trace. */
+    List<Span> toSpans(final long traceID) {
+        final List<Span> spans = new ArrayList<>(size);
+        final long start = starts[0];
+        for (int i = 0; i < size; i++) {
+            spans.add(new Span(traceID, i + 1, parents[i] + 1, names[i], starts[i] - start, durations[i],
+                    outcomes[i], transition(i)));
+        }
+        return spans;
+    }
+
+    /** @return result and next step of a process step, null otherwise. */
+    String transition(final int index) {
+        return results[index] == null && nexts[index] == null ? null : results[index] + " -> " + nexts[index];
+    }
+
+    /** Clears the buffer after a trace is complete. */
+    void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(outcomes, 0, size, null);
+        Arrays.fill(results, 0, size, null);
+        Arrays.fill(nexts, 0, size, null);
+        size = 0;
+        dropped = 0;
+    }
+}
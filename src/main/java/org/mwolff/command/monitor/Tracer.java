@@ -0,0 +1,148 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandContainer;
+import org.mwolff.command.interfaces.CommandListener;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Listener recording a span for every command executed. Spans of nested
+ * containers become children of the span of the enclosing command, if the
+ * nested containers use the same tracer. The outermost container execution
+ * is the root span, so all steps of a process belong to one trace. A trace is
+ * complete when its root span ends; it is handed over to the exporter then.
+ *
+ * Every thread records into its own preallocated span buffer which is reused
+ * for every trace. Spans exceeding the capacity of the buffer are dropped and
+ * counted.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class Tracer<T extends Object> implements CommandListener<T> {
+
+    /** Default number of spans a trace may have. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final TraceExporter exporter;
+    private final AtomicLong traceIDs = new AtomicLong();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder exportErrors = new LongAdder();
+    private final ThreadLocal<SpanBuffer> buffers;
+
+    /** Constructor with the default capacity.
+     *
+     * @param exporter
+     *            Receives the completed traces. */
+    public Tracer(final TraceExporter exporter) {
+        this(DEFAULT_CAPACITY, exporter);
+    }
+
+    /** Constructor.
+     *
+     * @param capacity
+     *            Maximum number of spans of one trace.
+     * @param exporter
+     *            Receives the completed traces. */
+    public Tracer(final int capacity, final TraceExporter exporter) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.exporter = exporter;
+        this.buffers = ThreadLocal.withInitial(() -> new SpanBuffer(capacity));
+    }
+
+    @Override
+    public void beforeContainer(final CommandContainer<T> container, final T parameterObject) {
+        buffers.get().beginContainer(ActionNames.of(container), System.nanoTime());
+    }
+
+    @Override
+    public void afterContainer(final CommandContainer<T> container, final T parameterObject) {
+        final SpanBuffer buffer = buffers.get();
+        if (buffer.endContainer(System.nanoTime())) {
+            complete(buffer);
+        }
+    }
+
+    @Override
+    public void beforeExecution(final Command<T> command, final T parameterObject) {
+        buffers.get().begin(ActionNames.of(command), System.nanoTime());
+    }
+
+    @Override
+    public void onTransition(final ProcessCommand<T> command, final T parameterObject, final String result,
+            final String next) {
+        buffers.get().transition(result, next);
+    }
+
+    @Override
+    public void afterExecution(final Command<T> command, final T parameterObject,
+            final CommandTransition transition) {
+        end(transition.name());
+    }
+
+    @Override
+    public void onFailure(final Command<T> command, final T parameterObject, final RuntimeException exception) {
+        end(exception.getClass().getName());
+    }
+
+    private void end(final String outcome) {
+        final SpanBuffer buffer = buffers.get();
+        if (buffer.end(outcome, System.nanoTime())) {
+            complete(buffer);
+        }
+    }
+
+    private void complete(final SpanBuffer buffer) {
+        final List<Span> spans = buffer.toSpans(traceIDs.incrementAndGet());
+        droppedSpans.add(buffer.dropped());
+        buffer.clear();
+        try {
+            exporter.export(spans);
+        } catch (final RuntimeException e) {
+            exportErrors.increment();
+        }
+    }
+
+    /** @return Number of spans dropped because a trace exceeded the capacity. */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /** @return Number of traces the exporter failed to export. */
+    public long getExportErrors() {
+        return exportErrors.sum();
+    }
+}
@@ -0,0 +1,70 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+/** Immutable view of one edge of a process graph together with the number of
+ * times it was taken.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class TransitionEdge {
+
+    private final String from;
+    private final String returnValue;
+    private final String to;
+    private final long count;
+
+    TransitionEdge(final String from, final String returnValue, final String to, final long count) {
+        this.from = from;
+        this.returnValue = returnValue;
+        this.to = to;
+        this.count = count;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getReturnValue() {
+        return returnValue;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return from + " -[" + returnValue + "]-> " + to + " (" + count + ")";
+    }
+}
@@ -0,0 +1,299 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandListener;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.process.AbstractDefaultProcessCommand;
+import org.mwolff.command.process.LazyProcessCommand;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Listener counting how often each transition of a process is taken. The
+ * counts can be exported as a weighted graph and used to reorder the
+ * transitions of each action so that the hottest transitions are checked
+ * first.
+ *
+ * Reordering never changes the result of <code>findNext</code>: transitions
+ * are ordered by the count of their return value using a stable sort, so
+ * transitions with the same return value keep their declaration order and the
+ * first declared one still wins.
+ *
+ * Counts are kept per command instance, so actions with the same process ID
+ * in different containers, e.g. in the fragments of sub-processes, are
+ * counted apart. The queries by name sum over all actions of that name.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class TransitionStatistics<T extends Object> implements CommandListener<T> {
+
+    private final Map<ProcessCommand<T>, ActionEdges> actions = new ConcurrentHashMap<>();
+    private final long reorderInterval;
+
+    /** Constructor. Transitions are only reordered by calling
+     * {@link #reorder(DefaultCommandContainer)}. */
+    public TransitionStatistics() {
+        this(0);
+    }
+
+    /** Constructor with adaptive ordering. Every <code>reorderInterval</code>
+     * transitions taken from an action the transitions of that action are
+     * reordered, provided it extends {@link AbstractDefaultProcessCommand}.
+     *
+     * @param reorderInterval
+     *            Number of transitions between two reorderings, 0 to disable. */
+    public TransitionStatistics(final long reorderInterval) {
+        if (reorderInterval < 0) {
+            throw new IllegalArgumentException("Reorder interval must not be negative.");
+        }
+        this.reorderInterval = reorderInterval;
+    }
+
+    @Override
+    public void onTransition(final ProcessCommand<T> command, final T parameterObject, final String result,
+            final String next) {
+        if (next == null) {
+            return;
+        }
+        ActionEdges edges = actions.get(command);
+        if (edges == null) {
+            edges = actions.computeIfAbsent(command, action -> new ActionEdges(ActionNames.of(action)));
+        }
+        final long taken = edges.increment(result, next);
+        if (reorderInterval > 0 && taken % reorderInterval == 0
+                && command instanceof AbstractDefaultProcessCommand) {
+            ((AbstractDefaultProcessCommand<T>) command).sortTransitions(hottestFirst(command));
+        }
+    }
+
+    /** Reorders the transitions of all process commands in the container.
+     *
+     * @param container
+     *            The container holding the process. */
+    public void reorder(final DefaultCommandContainer<T> container) {
+        for (final Command<T> command : container.getCommands()) {
+            if (command instanceof AbstractDefaultProcessCommand) {
+                final AbstractDefaultProcessCommand<T> processCommand = (AbstractDefaultProcessCommand<T>) command;
+                processCommand.sortTransitions(hottestFirst(processCommand));
+            }
+        }
+    }
+
+    /** The counts are taken when the comparator is created, so it stays
+     * consistent while transitions are taken during sorting.
+     *
+     * @param from
+     *            Name of the action.
+     * @return Order of the transitions of all actions with the name, most
+     *         taken first. */
+    public Comparator<Transition> hottestFirst(final String from) {
+        final Map<String, Long> counts = new HashMap<>();
+        for (final ActionEdges edges : actions.values()) {
+            if (edges.name.equals(from)) {
+                edges.counts().forEach((returnValue, count) -> counts.merge(returnValue, count, Long::sum));
+            }
+        }
+        return hottestFirst(counts);
+    }
+
+    /** Like {@link #hottestFirst(String)} for one action.
+     *
+     * @param command
+     *            The action.
+     * @return Order of the transitions of the action, most taken first. */
+    public Comparator<Transition> hottestFirst(final ProcessCommand<T> command) {
+        final ActionEdges edges = edges(command);
+        return hottestFirst(edges == null ? new HashMap<>() : edges.counts());
+    }
+
+    private static Comparator<Transition> hottestFirst(final Map<String, Long> counts) {
+        return Comparator.comparingLong((final Transition transition) -> counts
+                .getOrDefault(transition.getReturnValue(), 0L)).reversed();
+    }
+
+    /** @param from
+     *            Name of the action.
+     * @param returnValue
+     *            Return value of the action.
+     * @return Number of transitions taken from all actions with the name and
+     *         the return value. */
+    public long getCount(final String from, final String returnValue) {
+        long count = 0;
+        for (final ActionEdges edges : actions.values()) {
+            if (edges.name.equals(from)) {
+                count += edges.count(returnValue, null);
+            }
+        }
+        return count;
+    }
+
+    /** @param from
+     *            Name of the action.
+     * @param returnValue
+     *            Return value of the action.
+     * @param to
+     *            Target of the transition.
+     * @return Number of times the edge was taken from all actions with the
+     *         name. */
+    public long getCount(final String from, final String returnValue, final String to) {
+        long count = 0;
+        for (final ActionEdges edges : actions.values()) {
+            if (edges.name.equals(from)) {
+                count += edges.count(returnValue, to);
+            }
+        }
+        return count;
+    }
+
+    /** @param command
+     *            The action.
+     * @param returnValue
+     *            Return value of the action.
+     * @param to
+     *            Target of the transition.
+     * @return Number of times the edge was taken from this action. */
+    public long getCount(final ProcessCommand<T> command, final String returnValue, final String to) {
+        final ActionEdges edges = edges(command);
+        return edges == null ? 0 : edges.count(returnValue, to);
+    }
+
+    /** A lazy action is counted as its instance. */
+    private ActionEdges edges(final ProcessCommand<T> command) {
+        if (command instanceof LazyProcessCommand && ((LazyProcessCommand<T>) command).isResolved()) {
+            final Command<T> instance = ((LazyProcessCommand<T>) command).getInstance();
+            return instance instanceof ProcessCommand ? actions.get(instance) : null;
+        }
+        return actions.get(command);
+    }
+
+    /** @return All edges taken, ordered by action and then by count, most
+     *         taken first. Actions with the same name have their own edges. */
+    public List<TransitionEdge> getEdges() {
+        final List<ActionEdges> sorted = new ArrayList<>(actions.values());
+        sorted.sort(Comparator.comparing((final ActionEdges action) -> action.name));
+        final List<TransitionEdge> result = new ArrayList<>();
+        for (final ActionEdges action : sorted) {
+            final List<TransitionEdge> edges = new ArrayList<>();
+            for (final Map.Entry<String, ConcurrentHashMap<String, LongAdder>> returnValue : action.byReturnValue
+                    .entrySet()) {
+                for (final Map.Entry<String, LongAdder> target : returnValue.getValue().entrySet()) {
+                    edges.add(new TransitionEdge(action.name, returnValue.getKey(), target.getKey(),
+                            target.getValue().sum()));
+                }
+            }
+            edges.sort(Comparator.comparingLong(TransitionEdge::getCount).reversed()
+                    .thenComparing(TransitionEdge::getReturnValue).thenComparing(TransitionEdge::getTo));
+            result.addAll(edges);
+        }
+        return result;
+    }
+
+    /** @return The process as weighted graph: action to successor to number
+     *         of transitions taken, summed over all return values and all
+     *         actions with the same name. */
+    public Map<String, Map<String, Long>> getWeightedGraph() {
+        final Map<String, Map<String, Long>> graph = new TreeMap<>();
+        for (final TransitionEdge edge : getEdges()) {
+            graph.computeIfAbsent(edge.getFrom(), from -> new TreeMap<>()).merge(edge.getTo(), edge.getCount(),
+                    Long::sum);
+        }
+        return graph;
+    }
+
+    /** Resets all counts. */
+    public void reset() {
+        actions.clear();
+    }
+
+    private static class ActionEdges {
+
+        private final String name;
+        private final AtomicLong taken = new AtomicLong();
+        private final ConcurrentHashMap<String, ConcurrentHashMap<String, LongAdder>> byReturnValue =
+                new ConcurrentHashMap<>();
+
+        ActionEdges(final String name) {
+            this.name = name;
+        }
+
+        long increment(final String returnValue, final String to) {
+            ConcurrentHashMap<String, LongAdder> targets = byReturnValue.get(returnValue);
+            if (targets == null) {
+                targets = byReturnValue.computeIfAbsent(returnValue, value -> new ConcurrentHashMap<>());
+            }
+            LongAdder adder = targets.get(to);
+            if (adder == null) {
+                adder = targets.computeIfAbsent(to, target -> new LongAdder());
+            }
+            adder.increment();
+            return taken.incrementAndGet();
+        }
+
+        /** @return The count of the return value, to the given target or
+         *         to all targets if it is <code>null</code>. */
+        long count(final String returnValue, final String to) {
+            final Map<String, LongAdder> targets = byReturnValue.get(returnValue);
+            if (targets == null) {
+                return 0;
+            }
+            if (to != null) {
+                final LongAdder adder = targets.get(to);
+                return adder == null ? 0 : adder.sum();
+            }
+            long count = 0;
+            for (final LongAdder adder : targets.values()) {
+                count += adder.sum();
+            }
+            return count;
+        }
+
+        Map<String, Long> counts() {
+            final Map<String, Long> counts = new HashMap<>();
+            byReturnValue.forEach((returnValue, targets) -> {
+                long count = 0;
+                for (final LongAdder adder : targets.values()) {
+                    count += adder.sum();
+                }
+                counts.put(returnValue, count);
+            });
+            return counts;
+        }
+    }
+}
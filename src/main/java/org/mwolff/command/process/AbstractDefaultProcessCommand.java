@@ -32,6 +32,7 @@ import org.mwolff.command.interfaces.ProcessCommand;
 import org.mwolff.command.interfaces.Transition;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /** Default implementation for a process-command. You may use  <code>executeAsProcess</code> for all executions of the
@@ -41,7 +42,7 @@ public abstract class AbstractDefaultProcessCommand<T extends Object> extends Ab
         implements ProcessCommand<T> {
 
     protected String           processID;
-    protected List<Transition> transitionList = new ArrayList<>();
+    protected volatile List<Transition> transitionList = new ArrayList<>();
 
     /** Default constructor */
     protected AbstractDefaultProcessCommand() {
@@ -58,8 +59,24 @@ public abstract class AbstractDefaultProcessCommand<T extends Object> extends Ab
 
     /** @see ProcessCommand#addTransition(Transition) */
     @Override
-    public void addTransition(final Transition transition) {
-        transitionList.add(transition);
+    public synchronized void addTransition(final Transition transition) {
+        final List<Transition> transitions = new ArrayList<>(transitionList);
+        transitions.add(transition);
+        transitionList = transitions;
+    }
+
+    /** Sorts the transitions of this command. The sort is stable, so
+     * transitions the comparator treats as equal keep their declaration order.
+     * The list is replaced as a whole; executions running concurrently see
+     * either the old or the new order.
+     *
+     * @param comparator
+     *            The order of the transitions.
+     * @since 2.1.0 */
+    public synchronized void sortTransitions(final Comparator<? super Transition> comparator) {
+        final List<Transition> transitions = new ArrayList<>(transitionList);
+        transitions.sort(comparator);
+        transitionList = transitions;
     }
 
     /** @see ProcessCommand#findNext(java.lang.String) */
@@ -73,6 +90,28 @@ public abstract class AbstractDefaultProcessCommand<T extends Object> extends Ab
         return null;
     }
 
+    /** @return <code>true</code> if <code>findNext</code> is not overridden,
+     *         so the next command depends on the transitions only.
+     * @since 2.1.0 */
+    public boolean routesByTransitions() {
+        return routesByTransitions(getClass());
+    }
+
+    /** @param commandClass
+     *            The class of a command.
+     * @return <code>true</code> if the class is an
+     *         AbstractDefaultProcessCommand not overriding
+     *         <code>findNext</code>.
+     * @since 2.1.0 */
+    public static boolean routesByTransitions(final Class<?> commandClass) {
+        try {
+            return commandClass.getMethod("findNext", String.class)
+                    .getDeclaringClass() == AbstractDefaultProcessCommand.class;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     /** @see ProcessCommand#getProcessID() */
     @Override
     public String getProcessID() {
@@ -0,0 +1,106 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.process;
+
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandContainer;
+import org.mwolff.command.interfaces.ProcessCommand;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/** The fragments of the sub-processes of one owner, e.g. one
+ * {@link org.mwolff.command.builder.XMLChainBuilder} or all definitions of a
+ * {@link org.mwolff.command.builder.ChainRegistry}. Each referenced definition
+ * is built on first use and then shared by all {@link SubProcessCommand}s of
+ * the owner until the cache is cleared.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public final class FragmentCache<T extends Object> {
+
+    private final BiFunction<String, FragmentCache<T>, ? extends CommandContainer<T>> builder;
+    private final Map<String, Fragment<T>> fragments = new ConcurrentHashMap<>();
+
+    /** @param builder
+     *            Builds the container of a definition. Gets this cache for
+     *            the sub-processes of the definition. */
+    public FragmentCache(final BiFunction<String, FragmentCache<T>, ? extends CommandContainer<T>> builder) {
+        this.builder = builder;
+    }
+
+    /** Gets the fragment of a definition, building it on the first call.
+     *
+     * @param definition
+     *            The definition.
+     * @return The fragment.
+     * @throws CommandException
+     *             if the definition cannot be built. */
+    Fragment<T> get(final String definition) {
+        final Fragment<T> fragment = fragments.get(definition);
+        if (fragment != null) {
+            return fragment;
+        }
+        return fragments.computeIfAbsent(definition, this::build);
+    }
+
+    /** Drops all fragments, e.g. after the definitions changed. */
+    public void clear() {
+        fragments.clear();
+    }
+
+    private Fragment<T> build(final String definition) {
+        final CommandContainer<T> container = builder.apply(definition, this);
+        if (!(container instanceof DefaultCommandContainer)) {
+            throw new CommandException("Sub-process " + definition + " is no process definition");
+        }
+        String start = null;
+        for (final Command<T> command : ((DefaultCommandContainer<T>) container).getCommands()) {
+            if (command instanceof ProcessCommand && ((ProcessCommand<T>) command).getProcessID() != null) {
+                start = ((ProcessCommand<T>) command).getProcessID();
+                break;
+            }
+        }
+        return new Fragment<>((DefaultCommandContainer<T>) container, start);
+    }
+
+    /** A built definition and the action it starts with by default. */
+    static final class Fragment<T> {
+        final DefaultCommandContainer<T> container;
+        final String start;
+
+        private Fragment(final DefaultCommandContainer<T> container, final String start) {
+            this.container = container;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.process;
+
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.interfaces.Transition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mwolff.command.interfaces.CommandTransition.*;
+
+/** A linear run of process commands executed as one step of a process. Every
+ * command but the last has exactly one transition, leading to the next
+ * command of the run. If a command returns a value without transition the
+ * process ends with this result, as it would without fusion. The transitions
+ * of the step are the transitions of the last command.
+ *
+ * Created by {@link ProcessOptimizer}.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public final class FusedProcessCommand<T extends Object> implements ProcessCommand<T> {
+
+    private final ProcessCommand<T>[] steps;
+    private final ProcessCommand<T> last;
+    private final boolean endIsTerminal;
+    /** Private copies of the return values of the last command's transitions,
+     * returned when an earlier command ends the process with such a value. */
+    private final Map<String, String> endings = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    FusedProcessCommand(final boolean endIsTerminal, final List<ProcessCommand<T>> steps) {
+        this.steps = steps.toArray((ProcessCommand<T>[]) new ProcessCommand<?>[steps.size()]);
+        this.last = this.steps[this.steps.length - 1];
+        this.endIsTerminal = endIsTerminal;
+        for (final Transition transition : last.getTransitionList()) {
+            if (transition.getReturnValue() != null) {
+                endings.putIfAbsent(transition.getReturnValue(), new String(transition.getReturnValue()));
+            }
+        }
+    }
+
+    /** @return The fused commands in order of execution. */
+    public List<ProcessCommand<T>> getSteps() {
+        return Arrays.asList(steps.clone());
+    }
+
+    @Override
+    public String executeAsProcess(final T context) {
+        for (int i = 0; i < steps.length - 1; i++) {
+            final String result = steps[i].executeAsProcess(context);
+            if (result == null || steps[i].findNext(result) == null) {
+                // Not routed by the last command although it names one of its transitions.
+                return endings.getOrDefault(result, result);
+            }
+        }
+        return last.executeAsProcess(context);
+    }
+
+    @Override
+    public String executeAsProcess(final String startCommand, final T context) {
+        return null;
+    }
+
+    /** Finds the next command via the transitions of the last command. A
+     * transition to {@link ProcessCommand#END} ends the process directly if
+     * the process has no action with this ID. The result of an earlier
+     * command ending the process has no next command. */
+    @Override
+    public String findNext(final String next) {
+        if (next != null && endings.get(next) == next) {
+            return null;
+        }
+        final String target = last.findNext(next);
+        if (endIsTerminal && END.equals(target)) {
+            return null;
+        }
+        return target;
+    }
+
+    @Override
+    public String getProcessID() {
+        return steps[0].getProcessID();
+    }
+
+    @Override
+    public void setProcessID(final String processID) {
+        throw new UnsupportedOperationException("Process ID of a fused command cannot be changed.");
+    }
+
+    @Override
+    public void addTransition(final Transition transition) {
+        throw new UnsupportedOperationException("Transitions of a fused command cannot be changed.");
+    }
+
+    @Override
+    public List<Transition> getTransitionList() {
+        return new ArrayList<>(last.getTransitionList());
+    }
+
+    @Override
+    public CommandTransition executeCommand(final T parameterObject) {
+        CommandTransition transition = SUCCESS;
+        for (final ProcessCommand<T> step : steps) {
+            transition = step.executeCommand(parameterObject);
+            if (transition == FAILURE) {
+                break;
+            }
+        }
+        return transition;
+    }
+
+    @Override
+    public CommandTransition executeCommandAsChain(final T parameterObject) {
+        CommandTransition transition = NEXT;
+        for (final ProcessCommand<T> step : steps) {
+            transition = step.executeCommandAsChain(parameterObject);
+            if (transition == FAILURE || transition == DONE) {
+                break;
+            }
+        }
+        return transition;
+    }
+}
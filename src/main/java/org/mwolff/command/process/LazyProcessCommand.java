@@ -0,0 +1,163 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.process;
+
+import org.mwolff.command.CommandException;
+import org.mwolff.command.interfaces.ChainCommand;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.interfaces.Transition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Placeholder for a process command which is instantiated on first use. The
+ * placeholder knows the process ID and the transitions of the action, so it
+ * can be indexed by a container without loading the class. The first call of
+ * any other method loads and instantiates the class exactly once, also if
+ * several threads call concurrently, and delegates to the instance from then
+ * on. {@link org.mwolff.command.DefaultCommandContainer} replaces the
+ * placeholder by the instance in its process index on the first lookup.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class LazyProcessCommand<T extends Object> implements ProcessCommand<T> {
+
+    private final String classname;
+    private final List<Transition> transitions = new ArrayList<>();
+    private volatile String processID;
+    private volatile Command<T> instance;
+
+    public LazyProcessCommand(final String classname, final String processID) {
+        this.classname = classname;
+        this.processID = processID;
+    }
+
+    public String getClassname() {
+        return classname;
+    }
+
+    /** @return true if the command is instantiated already. */
+    public boolean isResolved() {
+        return instance != null;
+    }
+
+    /** Instantiates the command on the first call.
+     *
+     * @return The command.
+     * @throws CommandException
+     *             if the class cannot be instantiated. */
+    @SuppressWarnings("unchecked")
+    public Command<T> getInstance() {
+        Command<T> command = instance;
+        if (command == null) {
+            synchronized (this) {
+                command = instance;
+                if (command == null) {
+                    try {
+                        command = (Command<T>) Class.forName(classname).getDeclaredConstructor().newInstance();
+                    } catch (final ReflectiveOperationException | LinkageError | ClassCastException e) {
+                        throw new CommandException("Error while instaciating class via reflection", e);
+                    }
+                    if (command instanceof ProcessCommand) {
+                        ((ProcessCommand<T>) command).setProcessID(processID);
+                        transitions.forEach(((ProcessCommand<T>) command)::addTransition);
+                    }
+                    instance = command;
+                }
+            }
+        }
+        return command;
+    }
+
+    private ProcessCommand<T> process() {
+        final Command<T> command = getInstance();
+        if (!(command instanceof ProcessCommand)) {
+            throw new CommandException(classname + " is no ProcessCommand");
+        }
+        return (ProcessCommand<T>) command;
+    }
+
+    @Override
+    public CommandTransition executeCommand(final T parameterObject) {
+        return getInstance().executeCommand(parameterObject);
+    }
+
+    @Override
+    public CommandTransition executeCommandAsChain(final T parameterObject) {
+        return ((ChainCommand<T>) getInstance()).executeCommandAsChain(parameterObject);
+    }
+
+    @Override
+    public String executeAsProcess(final String startCommand, final T context) {
+        return process().executeAsProcess(startCommand, context);
+    }
+
+    @Override
+    public String executeAsProcess(final T context) {
+        return process().executeAsProcess(context);
+    }
+
+    @Override
+    public String findNext(final String next) {
+        return process().findNext(next);
+    }
+
+    @Override
+    public synchronized void addTransition(final Transition transition) {
+        if (instance == null) {
+            transitions.add(transition);
+        } else {
+            process().addTransition(transition);
+        }
+    }
+
+    @Override
+    public synchronized List<Transition> getTransitionList() {
+        if (instance == null) {
+            return new ArrayList<>(transitions);
+        }
+        return instance instanceof ProcessCommand ? ((ProcessCommand<T>) instance).getTransitionList()
+                : new ArrayList<>();
+    }
+
+    @Override
+    public String getProcessID() {
+        return processID;
+    }
+
+    @Override
+    public synchronized void setProcessID(final String processID) {
+        this.processID = processID;
+        if (instance instanceof ProcessCommand) {
+            ((ProcessCommand<T>) instance).setProcessID(processID);
+        }
+    }
+}
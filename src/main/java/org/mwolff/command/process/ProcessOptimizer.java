@@ -0,0 +1,196 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.process;
+
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.interfaces.Transition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Optimization passes on a process. The optimized process behaves like the
+ * original one when started at one of the declared start points:
+ * <ul>
+ * <li>Actions not reachable from a start point are removed.</li>
+ * <li>Linear runs of actions, where an action has exactly one transition and
+ * its target has no other predecessor, are fused into one
+ * {@link FusedProcessCommand}. Each fused run needs one lookup and one
+ * dispatch instead of one per action.</li>
+ * <li>Transitions to {@link ProcessCommand#END} end the process without a
+ * lookup if there is no action with this ID.</li>
+ * </ul>
+ * Only actions routing by their transitions, i.e. not overriding
+ * <code>findNext</code> of {@link AbstractDefaultProcessCommand}, are fused.
+ * An action with its own routing may lead to any action. Listeners observe a
+ * fused run as one step named after its first action.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public final class ProcessOptimizer {
+
+    private ProcessOptimizer() {
+    }
+
+    /** Optimizes a process.
+     *
+     * @param container
+     *            The process to optimize. It is not changed.
+     * @param startPoints
+     *            The process IDs the process may be started with. Without
+     *            start points every action is a possible start, so only
+     *            transitions to END are optimized.
+     * @return A new container with the optimized process. */
+    public static <T extends Object> DefaultCommandContainer<T> optimize(final DefaultCommandContainer<T> container,
+            final String... startPoints) {
+        final Map<String, ProcessCommand<T>> byID = new LinkedHashMap<>();
+        for (final Command<T> command : container.getCommands()) {
+            if (command instanceof ProcessCommand) {
+                final ProcessCommand<T> processCommand = (ProcessCommand<T>) command;
+                if (processCommand.getProcessID() != null) {
+                    byID.putIfAbsent(processCommand.getProcessID(), processCommand);
+                }
+            }
+        }
+        final boolean endIsTerminal = !byID.containsKey(ProcessCommand.END);
+        final Set<String> starts = new HashSet<>(Arrays.asList(startPoints));
+
+        final List<Command<T>> kept = new ArrayList<>();
+        final Map<ProcessCommand<T>, ProcessCommand<T>> fusedWith = new IdentityHashMap<>();
+        if (starts.isEmpty()) {
+            kept.addAll(container.getCommands());
+        } else {
+            final Set<String> reachable = reachable(byID, starts);
+            final Map<String, Integer> predecessors = countPredecessors(byID, reachable);
+            for (final ProcessCommand<T> command : byID.values()) {
+                if (!reachable.contains(command.getProcessID())) {
+                    continue;
+                }
+                kept.add(command);
+                if (routesByTransitions(command) && command.getTransitionList().size() == 1) {
+                    final ProcessCommand<T> successor = byID.get(command.getTransitionList().get(0).getTarget());
+                    if (successor != null && successor != command && !starts.contains(successor.getProcessID())
+                            && predecessors.get(successor.getProcessID()) == 1) {
+                        fusedWith.put(command, successor);
+                    }
+                }
+            }
+        }
+
+        final Set<ProcessCommand<T>> fused = Collections.newSetFromMap(new IdentityHashMap<>());
+        fused.addAll(fusedWith.values());
+        final DefaultCommandContainer<T> optimized = new DefaultCommandContainer<>();
+        int priority = 0;
+        for (final Command<T> command : kept) {
+            if (!(command instanceof ProcessCommand)) {
+                optimized.addCommand(++priority, command);
+            } else if (!fused.contains(command)) {
+                final List<ProcessCommand<T>> run = new ArrayList<>();
+                for (ProcessCommand<T> step = (ProcessCommand<T>) command; step != null; step = fusedWith.get(step)) {
+                    run.add(step);
+                }
+                optimized.addCommand(++priority, compile(run, endIsTerminal));
+            }
+        }
+        return optimized;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ProcessCommand<T> compile(final List<ProcessCommand<T>> run, final boolean endIsTerminal) {
+        final ProcessCommand<T> last = run.get(run.size() - 1);
+        boolean leadsToEnd = false;
+        if (endIsTerminal && routesByTransitions(last)) {
+            for (final Transition transition : last.getTransitionList()) {
+                leadsToEnd |= ProcessCommand.END.equals(transition.getTarget());
+            }
+        }
+        if (run.size() == 1 && !leadsToEnd) {
+            return last;
+        }
+        return new FusedProcessCommand<>(leadsToEnd, run);
+    }
+
+    private static <T> Set<String> reachable(final Map<String, ProcessCommand<T>> byID, final Set<String> starts) {
+        final Set<String> reachable = new HashSet<>();
+        final Deque<String> queue = new ArrayDeque<>();
+        for (final String start : starts) {
+            if (byID.containsKey(start) && reachable.add(start)) {
+                queue.add(start);
+            }
+        }
+        while (!queue.isEmpty()) {
+            final ProcessCommand<T> command = byID.get(queue.poll());
+            for (final String target : successors(command, byID)) {
+                if (byID.containsKey(target) && reachable.add(target)) {
+                    queue.add(target);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private static <T> Map<String, Integer> countPredecessors(final Map<String, ProcessCommand<T>> byID,
+            final Set<String> reachable) {
+        final Map<String, Integer> predecessors = new HashMap<>();
+        for (final String id : reachable) {
+            for (final String target : successors(byID.get(id), byID)) {
+                predecessors.merge(target, 1, Integer::sum);
+            }
+        }
+        return predecessors;
+    }
+
+    private static <T> List<String> successors(final ProcessCommand<T> command,
+            final Map<String, ProcessCommand<T>> byID) {
+        if (!routesByTransitions(command)) {
+            return new ArrayList<>(byID.keySet());
+        }
+        final List<String> successors = new ArrayList<>();
+        for (final Transition transition : command.getTransitionList()) {
+            successors.add(transition.getTarget());
+        }
+        return successors;
+    }
+
+    private static boolean routesByTransitions(final ProcessCommand<?> command) {
+        return command instanceof AbstractDefaultProcessCommand
+                && ((AbstractDefaultProcessCommand<?>) command).routesByTransitions();
+    }
+}
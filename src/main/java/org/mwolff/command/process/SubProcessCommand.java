@@ -0,0 +1,97 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.process;
+
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.CommandTransition;
+
+/** Process step invoking another definition, declared by a
+ * <code>&lt;subprocess definition="..."/&gt;</code> element. The referenced
+ * definition is built on first use by the {@link FragmentCache} of the owner
+ * and shared as fragment by all its steps, so it has to be treated as
+ * immutable.
+ * <p>
+ * {@link DefaultCommandContainer} executes the fragment in its own process
+ * loop with an explicit stack instead of calling it recursively. The result of
+ * the sub-process is the last result one of its actions returned; the
+ * transitions of this step are applied to it.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class SubProcessCommand<T extends Object> extends AbstractDefaultProcessCommand<T> {
+
+    private final String definition;
+    private final String start;
+    private final FragmentCache<T> fragments;
+
+    /** @param definition
+     *            The definition to invoke, a classpath resource as for
+     *            {@link org.mwolff.command.builder.XMLChainBuilder}.
+     * @param start
+     *            The action of the definition to start with or
+     *            <code>null</code> for its first action with an ID.
+     * @param fragments
+     *            The cache of the owner building the definition. */
+    public SubProcessCommand(final String definition, final String start, final FragmentCache<T> fragments) {
+        this.definition = definition;
+        this.start = start;
+        this.fragments = fragments;
+    }
+
+    public String getDefinition() {
+        return definition;
+    }
+
+    /** Gets the fragment, building it on the first call of the owner.
+     *
+     * @return The container of the referenced definition.
+     * @throws org.mwolff.command.CommandException
+     *             if the definition cannot be built. */
+    public DefaultCommandContainer<T> getFragment() {
+        return fragments.get(definition).container;
+    }
+
+    /** @return The ID of the action the sub-process starts with. */
+    public String getStart() {
+        return start != null ? start : fragments.get(definition).start;
+    }
+
+    /** Executes the sub-process. Used if this step is not executed by a
+     * {@link DefaultCommandContainer}. */
+    @Override
+    public String executeAsProcess(final T context) {
+        return getFragment().executeProcess(getStart(), context);
+    }
+
+    /** Executes the fragment as chain. */
+    @Override
+    public CommandTransition executeCommand(final T parameterObject) {
+        return getFragment().executeCommand(parameterObject);
+    }
+}
@@ -0,0 +1,66 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Compiles an XML process definition into a Java class at build time. The
+ * class is generated into the package of the annotated element by the
+ * {@link ProcessDefinitionProcessor}. It instantiates the actions directly and
+ * routes the transitions with a <code>switch</code>, so neither XML parsing
+ * nor reflection happens at runtime.
+ * <p>
+ * The processor is not registered as service, so it does not run in every
+ * build using this library. Name it explicitly, with
+ * <code>-processor org.mwolff.command.processor.ProcessDefinitionProcessor</code>
+ * or in the <code>annotationProcessors</code> of the
+ * <code>maven-compiler-plugin</code>:
+ *
+ * <pre>
+ * &lt;annotationProcessors&gt;
+ *     &lt;annotationProcessor&gt;org.mwolff.command.processor.ProcessDefinitionProcessor&lt;/annotationProcessor&gt;
+ * &lt;/annotationProcessors&gt;
+ * </pre>
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ ElementType.TYPE, ElementType.PACKAGE })
+public @interface ProcessDefinition {
+
+    /** @return The XML file, relative to the source path or class path. */
+    String value();
+
+    /** @return Simple name of the generated class. Defaults to the name of the
+     *         XML file starting with an upper case letter. */
+    String className() default "";
+}
@@ -0,0 +1,264 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.processor;
+
+import org.mwolff.command.interfaces.ChainCommand;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.process.AbstractDefaultProcessCommand;
+import org.mwolff.command.sax.Action;
+import org.mwolff.command.sax.ProcessGraphValidator;
+import org.mwolff.command.sax.SaxParameterObject;
+import org.mwolff.command.sax.SaxParserCommand;
+import org.xml.sax.InputSource;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
+import static org.mwolff.command.sax.GlobalCommandConstants.*;
+
+/** Annotation processor for {@link ProcessDefinition}. The XML file is parsed
+ * and validated with the same commands as at runtime; in addition every action
+ * class must exist, be public, concrete and have a public default constructor.
+ * Errors are reported as compile errors on the annotated element, cycles
+ * without exit as warnings.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+@SupportedAnnotationTypes("org.mwolff.command.processor.ProcessDefinition")
+public class ProcessDefinitionProcessor extends AbstractProcessor {
+
+    private static final StandardLocation[] LOCATIONS = { StandardLocation.SOURCE_PATH,
+            StandardLocation.CLASS_OUTPUT, StandardLocation.CLASS_PATH };
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final Element element : roundEnv.getElementsAnnotatedWith(ProcessDefinition.class)) {
+            final ProcessDefinition definition = element.getAnnotation(ProcessDefinition.class);
+            final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(element);
+            final String className = definition.className().isEmpty() ? className(definition.value())
+                    : definition.className();
+            final String qualifiedName = pkg.isUnnamed() ? className
+                    : pkg.getQualifiedName() + "." + className;
+            if (generated.add(qualifiedName)) {
+                generate(element, definition.value(), pkg, className);
+            }
+        }
+        return true;
+    }
+
+    private void generate(final Element element, final String file, final PackageElement pkg,
+            final String className) {
+        final SaxParameterObject context = new SaxParameterObject();
+        try (InputStream input = open(file)) {
+            if (input == null) {
+                error(element, "Process definition " + file + " not found");
+                return;
+            }
+            context.put(INPUT_SOURCE, new InputSource(input));
+            if (new SaxParserCommand().executeCommand(context) == FAILURE) {
+                error(element, "Cannot parse " + file + ": " + context.getAsString(ERROR_STRING));
+                return;
+            }
+        } catch (final IOException e) {
+            error(element, "Cannot read " + file + ": " + e.getMessage());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        final List<Action> actions = (List<Action>) context.get(ACTION_LIST);
+        final List<String> errors = new ArrayList<>();
+        final List<TypeElement> types = new ArrayList<>();
+        for (final Action action : actions) {
+            types.add(checkClass(action, errors));
+        }
+        final String start = (String) context.get(PROCESS_START);
+        errors.addAll(ProcessGraphValidator.validate(actions, start));
+        if (errors.isEmpty() && start != null) {
+            for (final String message : ProcessGraphValidator.warnings(actions, start)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, file + ": " + message, element);
+            }
+        }
+        if (!errors.isEmpty()) {
+            for (final String message : errors) {
+                error(element, file + ": " + message);
+            }
+            return;
+        }
+
+        final String source = new ProcessSourceWriter(pkg.isUnnamed() ? null : pkg.getQualifiedName().toString(),
+                className, file).write(actions, types, this::isProcessCommand, this::isChainCommand,
+                        this::routesByTransitions);
+        try {
+            final String name = pkg.isUnnamed() ? className : pkg.getQualifiedName() + "." + className;
+            final JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(name, element);
+            try (Writer writer = sourceFile.openWriter()) {
+                writer.write(source);
+            }
+        } catch (final IOException e) {
+            error(element, "Cannot write " + className + ": " + e.getMessage());
+        }
+    }
+
+    private InputStream open(final String file) {
+        for (final StandardLocation location : LOCATIONS) {
+            try {
+                final FileObject resource = processingEnv.getFiler().getResource(location, "", file);
+                return resource.openInputStream();
+            } catch (final IOException | IllegalArgumentException e) {
+                // Try the next location.
+            }
+        }
+        return null;
+    }
+
+    private TypeElement checkClass(final Action action, final List<String> errors) {
+        final String name = action.getId() == null ? action.getClassname() : "'" + action.getId() + "'";
+        if (action.getDefinition() != null) {
+            errors.add("Sub-process " + name + " cannot be generated, use XMLChainBuilder");
+            return null;
+        }
+        final TypeElement type = action.getClassname() == null ? null
+                : processingEnv.getElementUtils().getTypeElement(action.getClassname().replace('$', '.'));
+        if (type == null) {
+            errors.add("Class " + action.getClassname() + " of action " + name + " not found");
+            return null;
+        }
+        if (type.getKind() != ElementKind.CLASS || !type.getModifiers().contains(Modifier.PUBLIC)
+                || type.getModifiers().contains(Modifier.ABSTRACT)
+                || (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC))) {
+            errors.add("Class " + action.getClassname() + " of action " + name
+                    + " must be a public concrete top level or static class");
+        } else if (!hasDefaultConstructor(type)) {
+            errors.add("Class " + action.getClassname() + " of action " + name
+                    + " has no public default constructor");
+        }
+        if (!isAssignable(type, Command.class)) {
+            errors.add("Class " + action.getClassname() + " of action " + name + " is no Command");
+        } else if (!action.getTransitions().isEmpty() && !isProcessCommand(type)) {
+            errors.add("Action " + name + " has transitions but " + action.getClassname()
+                    + " is no ProcessCommand");
+        }
+        return type;
+    }
+
+    private static boolean hasDefaultConstructor(final TypeElement type) {
+        for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isProcessCommand(final TypeElement type) {
+        return isAssignable(type, ProcessCommand.class);
+    }
+
+    private boolean isChainCommand(final TypeElement type) {
+        return isAssignable(type, ChainCommand.class);
+    }
+
+    private boolean isAssignable(final TypeElement type, final Class<?> target) {
+        final TypeElement targetType = processingEnv.getElementUtils().getTypeElement(target.getCanonicalName());
+        return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type.asType()),
+                processingEnv.getTypeUtils().erasure(targetType.asType()));
+    }
+
+    /** Same as {@link AbstractDefaultProcessCommand#routesByTransitions()}
+     * on the source model: no class up to AbstractDefaultProcessCommand
+     * overrides <code>findNext</code>. */
+    private boolean routesByTransitions(final TypeElement type) {
+        TypeElement current = type;
+        while (current != null) {
+            if (current.getQualifiedName().contentEquals(AbstractDefaultProcessCommand.class.getCanonicalName())) {
+                return true;
+            }
+            for (final ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals("findNext") && method.getParameters().size() == 1) {
+                    return false;
+                }
+            }
+            final TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return false;
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    static String className(final String file) {
+        String name = file.substring(file.lastIndexOf('/') + 1);
+        if (name.indexOf('.') > 0) {
+            name = name.substring(0, name.indexOf('.'));
+        }
+        final StringBuilder result = new StringBuilder();
+        for (final char character : name.toCharArray()) {
+            if (result.length() == 0 ? Character.isJavaIdentifierStart(character)
+                    : Character.isJavaIdentifierPart(character)) {
+                result.append(result.length() == 0 ? Character.toUpperCase(character) : character);
+            }
+        }
+        return result.length() == 0 ? "Process" : result.toString();
+    }
+}
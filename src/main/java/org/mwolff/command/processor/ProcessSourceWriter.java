@@ -0,0 +1,258 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.processor;
+
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.sax.Action;
+
+import javax.lang.model.element.TypeElement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/** Writes the Java source of a process definition. The actions are final
+ * fields created with <code>new</code>; the process is a loop over the index
+ * of the current action, and the result of each action is mapped to the index
+ * of the next one with a <code>switch</code>. The fields are typed with the
+ * raw command interfaces because action classes may bound their parameter
+ * object; every call site still has exactly one receiver class.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+class ProcessSourceWriter {
+
+    private static final String PROCESS_COMMAND = "org.mwolff.command.interfaces.ProcessCommand";
+    private static final String CHAIN_COMMAND = "org.mwolff.command.interfaces.ChainCommand";
+    private static final String COMMAND = "org.mwolff.command.interfaces.Command";
+    private static final String TRANSITION = "org.mwolff.command.interfaces.CommandTransition";
+
+    private final String packageName;
+    private final String className;
+    private final String file;
+    private final StringBuilder source = new StringBuilder();
+
+    ProcessSourceWriter(final String packageName, final String className, final String file) {
+        this.packageName = packageName;
+        this.className = className;
+        this.file = file;
+    }
+
+    String write(final List<Action> actions, final List<TypeElement> types,
+            final Predicate<TypeElement> isProcessCommand, final Predicate<TypeElement> isChainCommand,
+            final Predicate<TypeElement> routesByTransitions) {
+        final Map<String, Integer> index = new LinkedHashMap<>();
+        for (int i = 0; i < actions.size(); i++) {
+            if (actions.get(i).getId() != null && isProcessCommand.test(types.get(i))) {
+                index.putIfAbsent(actions.get(i).getId(), i);
+            }
+        }
+
+        if (packageName != null) {
+            line("package " + packageName + ";").line("");
+        }
+        line("/** Generated from " + file + ". Do not edit. */");
+        line("@javax.annotation.processing.Generated(\"" + ProcessDefinitionProcessor.class.getName() + "\")");
+        line("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+        line("public final class " + className + "<T extends Object> implements " + PROCESS_COMMAND + "<T> {");
+        line("");
+        for (int i = 0; i < actions.size(); i++) {
+            final String type = isProcessCommand.test(types.get(i)) ? PROCESS_COMMAND
+                    : isChainCommand.test(types.get(i)) ? CHAIN_COMMAND : COMMAND;
+            line("    private final " + type + " action" + i + " = new " + types.get(i).getQualifiedName() + "();");
+        }
+        line("");
+        line("    public " + className + "() {");
+        for (int i = 0; i < actions.size(); i++) {
+            final Action action = actions.get(i);
+            if (action.getId() != null && isProcessCommand.test(types.get(i))) {
+                line("        action" + i + ".setProcessID(" + literal(action.getId()) + ");");
+            }
+            for (final Transition transition : action.getTransitions()) {
+                line("        action" + i + ".addTransition(transition(" + literal(transition.getReturnValue())
+                        + ", " + literal(transition.getTarget()) + "));");
+            }
+        }
+        line("    }");
+        line("");
+        line("    private static org.mwolff.command.interfaces.Transition transition(final String returnValue,");
+        line("            final String target) {");
+        line("        final org.mwolff.command.process.DefaultTransition transition = "
+                + "new org.mwolff.command.process.DefaultTransition();");
+        line("        transition.setReturnValue(returnValue);");
+        line("        transition.setTarget(target);");
+        line("        return transition;");
+        line("    }");
+        line("");
+
+        writeChain(actions.size(), "executeCommand", "FAILURE", null, types, isChainCommand);
+        writeChain(actions.size(), "executeCommandAsChain", "FAILURE", "DONE", types, isChainCommand);
+
+        line("    @Override");
+        line("    public String executeAsProcess(final String startCommand, final T context) {");
+        line("        int step = indexOf(startCommand);");
+        line("        while (step >= 0) {");
+        line("            step = step(step, context);");
+        line("        }");
+        line("        return null;");
+        line("    }");
+        line("");
+        line("    private int step(final int step, final T context) {");
+        line("        final String result;");
+        line("        switch (step) {");
+        for (int i = 0; i < actions.size(); i++) {
+            if (!index.containsValue(i)) {
+                continue;
+            }
+            line("        case " + i + ":");
+            line("            result = action" + i + ".executeAsProcess(context);");
+            line("            if (result == null) {");
+            line("                return -1;");
+            line("            }");
+            if (routesByTransitions.test(types.get(i))) {
+                line("            switch (result) {");
+                final Set<String> returnValues = new HashSet<>();
+                for (final Transition transition : actions.get(i).getTransitions()) {
+                    if (returnValues.add(transition.getReturnValue())) {
+                        line("            case " + literal(transition.getReturnValue()) + ":");
+                        line("                return " + index.getOrDefault(transition.getTarget(), -1) + ";");
+                    }
+                }
+                line("            default:");
+                line("                return -1;");
+                line("            }");
+            } else {
+                line("            return indexOf(action" + i + ".findNext(result));");
+            }
+        }
+        line("        default:");
+        line("            return -1;");
+        line("        }");
+        line("    }");
+        line("");
+        line("    private static int indexOf(final String processID) {");
+        line("        if (processID == null) {");
+        line("            return -1;");
+        line("        }");
+        line("        switch (processID) {");
+        for (final Map.Entry<String, Integer> entry : index.entrySet()) {
+            line("        case " + literal(entry.getKey()) + ":");
+            line("            return " + entry.getValue() + ";");
+        }
+        line("        default:");
+        line("            return -1;");
+        line("        }");
+        line("    }");
+        line("");
+        line("    @Override");
+        line("    public String executeAsProcess(final T context) {");
+        line("        return null;");
+        line("    }");
+        line("");
+        line("    @Override");
+        line("    public String getProcessID() {");
+        line("        return null;");
+        line("    }");
+        line("");
+        line("    @Override");
+        line("    public void setProcessID(final String processID) {");
+        line("        throw new IllegalArgumentException(\"ProcessID cannot be set on a generated process.\");");
+        line("    }");
+        line("}");
+        return source.toString();
+    }
+
+    private void writeChain(final int size, final String method, final String stop, final String otherStop,
+            final List<TypeElement> types, final Predicate<TypeElement> isChainCommand) {
+        line("    @Override");
+        line("    public " + TRANSITION + " " + method + "(final T parameterObject) {");
+        line("        " + TRANSITION + " transition = " + TRANSITION + ".SUCCESS;");
+        for (int i = 0; i < size; i++) {
+            final String receiver = "executeCommandAsChain".equals(method) && !isChainCommand.test(types.get(i))
+                    ? "((" + CHAIN_COMMAND + ") action" + i + ")" : "action" + i;
+            line("        transition = " + receiver + "." + method + "(parameterObject);");
+            if (i < size - 1) {
+                line("        if (transition == " + TRANSITION + "." + stop
+                        + (otherStop == null ? "" : " || transition == " + TRANSITION + "." + otherStop) + ") {");
+                line("            return transition;");
+                line("        }");
+            }
+        }
+        line("        return transition;");
+        line("    }");
+        line("");
+    }
+
+    private ProcessSourceWriter line(final String line) {
+        source.append(line).append('\n');
+        return this;
+    }
+
+    static String literal(final String value) {
+        final StringBuilder literal = new StringBuilder("\"");
+        for (final char character : value.toCharArray()) {
+            switch (character) {
+            case '"':
+                literal.append("\\\"");
+                break;
+            case '\\':
+                literal.append("\\\\");
+                break;
+            case '\b':
+                literal.append("\\b");
+                break;
+            case '\t':
+                literal.append("\\t");
+                break;
+            case '\n':
+                literal.append("\\n");
+                break;
+            case '\f':
+                literal.append("\\f");
+                break;
+            case '\r':
+                literal.append("\\r");
+                break;
+            default:
+                if (character < 0x20) {
+                    // Unicode escapes are translated before lexing, so they
+                    // must not produce line terminators.
+                    literal.append(String.format("\\%03o", (int) character));
+                } else if (character > 0x7e) {
+                    literal.append(String.format("\\u%04x", (int) character));
+                } else {
+                    literal.append(character);
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
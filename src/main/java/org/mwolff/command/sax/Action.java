@@ -36,6 +36,8 @@ public class Action {
 
     private String                 classname;
     private String                 id;
+    private String                 definition;
+    private String                 start;
     private final List<Transition> transitions = new ArrayList<>();
 
     public void setTransition(final Transition transition) {
@@ -62,4 +64,25 @@ public class Action {
         this.id = id;
     }
 
+    /** @return The definition a sub-process action invokes or
+     *         <code>null</code> for a plain action.
+     * @since 2.1.0 */
+    public String getDefinition() {
+        return definition;
+    }
+
+    public void setDefinition(final String definition) {
+        this.definition = definition;
+    }
+
+    /** @return The action a sub-process starts with or <code>null</code>.
+     * @since 2.1.0 */
+    public String getStart() {
+        return start;
+    }
+
+    public void setStart(final String start) {
+        this.start = start;
+    }
+
 }
@@ -36,38 +36,88 @@ import org.xml.sax.helpers.DefaultHandler;
 import java.util.ArrayList;
 import java.util.List;
 
+/** Maps the elements of a process definition to actions. The mapping is
+ * shared by {@link SaxParserCommand} and {@link StaxParserCommand}; apart from
+ * the actions and transitions nothing is allocated per element.
+ *
+ * @author Manfred Wolff */
 public class ActionContentHandler extends DefaultHandler {
 
+    /** The attributes of the current element, by local name.
+     *
+     * @since 2.1.0 */
+    interface AttributeSource {
+        String getValue(String name);
+    }
+
     private final ArrayList<Action> actions = new ArrayList<>();
+    private final AttributeSource   saxAttributes = name -> this.attributes.getValue(name);
     private Action                  action;
+    private String                  start;
+    private Attributes              attributes;
 
     public List<Action> getActions() {
         return actions;
     }
 
+    /** @return The start action declared on the process element or
+     *         <code>null</code>.
+     * @since 2.1.0 */
+    public String getStart() {
+        return start;
+    }
+
     @Override
     public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+        attributes = atts;
+        try {
+            startElement(localName, saxAttributes);
+        } finally {
+            attributes = null;
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        endElement(localName);
+    }
 
-        Transition transition;
-        if ("action".equals(localName)) {
+    /** Maps the start of an element.
+     *
+     * @param localName
+     *            The local name of the element.
+     * @param atts
+     *            The attributes of the element.
+     * @since 2.1.0 */
+    void startElement(final String localName, final AttributeSource atts) {
+        if ("process".equals(localName)) {
+            start = atts.getValue("start");
+        } else if ("action".equals(localName)) {
             action = new Action();
             action.setId(atts.getValue("id"));
             action.setClassname(atts.getValue("class"));
-        }
-
-        if ("transition".equals(localName)) {
-            transition = new DefaultTransition();
+        } else if ("subprocess".equals(localName)) {
+            action = new Action();
+            action.setId(atts.getValue("id"));
+            action.setDefinition(atts.getValue("definition"));
+            action.setStart(atts.getValue("start"));
+        } else if ("transition".equals(localName) && action != null) {
+            final Transition transition = new DefaultTransition();
             transition.setTarget(atts.getValue("to"));
             transition.setReturnValue(atts.getValue("name"));
             action.setTransition(transition);
         }
     }
 
-    @Override
-    public void endElement(String uri, String localName, String qName) throws SAXException {
-
-        if ("action".equals(localName)) {
+    /** Maps the end of an element.
+     *
+     * @param localName
+     *            The local name of the element.
+     * @since 2.1.0 */
+    void endElement(final String localName) {
+        if ("action".equals(localName) || "subprocess".equals(localName)) {
             actions.add(action);
+            action = null;
         }
     }
-}
\ No newline at end of file
+}
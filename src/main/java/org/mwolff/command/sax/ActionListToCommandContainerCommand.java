@@ -33,16 +33,48 @@ import org.mwolff.command.interfaces.Command;
 import org.mwolff.command.interfaces.CommandTransition;
 import org.mwolff.command.interfaces.Transition;
 import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.process.FragmentCache;
+import org.mwolff.command.process.LazyProcessCommand;
+import org.mwolff.command.process.SubProcessCommand;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
 import static org.mwolff.command.interfaces.CommandTransition.SUCCESS;
 import static org.mwolff.command.sax.GlobalCommandConstants.*;
 
+/** Instantiates the commands of the ACTION_LIST into a COMMAND_CONTAINER.
+ * Optionally actions with an ID are registered as {@link LazyProcessCommand}
+ * placeholders, which are instantiated when the process reaches them first.
+ * <p>
+ * If COMMAND_INSTANCES holds the instances of a former build, commands of
+ * actions with the same ID, class and transitions are reused instead of
+ * instantiated. Instances whose transitions changed are left untouched, since
+ * containers built before may still run them.
+ * The instances of this build are put into COMMAND_INSTANCES then.
+ * <p>
+ * Sub-processes get their fragments from the FRAGMENT_CACHE, which is
+ * required if the definition has sub-processes.
+ *
+ * @author Manfred Wolff */
 public class ActionListToCommandContainerCommand extends AbstractDefaultCommand<SaxParameterObject> {
 
+    private final boolean lazy;
+
+    public ActionListToCommandContainerCommand() {
+        this(false);
+    }
+
+    /** @param lazy
+     *            true to instantiate actions with an ID on first use.
+     * @since 2.1.0 */
+    public ActionListToCommandContainerCommand(final boolean lazy) {
+        this.lazy = lazy;
+    }
 
     @SuppressWarnings({ "unchecked" })
     @Override
@@ -51,10 +83,51 @@ public class ActionListToCommandContainerCommand extends AbstractDefaultCommand<
         final DefaultCommandContainer<Object> defaultCommandContainer = new DefaultCommandContainer<>();
 
         final List<Action> actionList = (List<Action>) parameterObject.get(ACTION_LIST.toString());
+        // Validate first, so an invalid definition instantiates nothing.
+        final List<String> errors = ProcessGraphValidator.validate(actionList,
+                (String) parameterObject.get(PROCESS_START));
+        if (!errors.isEmpty()) {
+            parameterObject.put(ERROR_STRING.toString(), "Invalid process definition: " + String.join("; ", errors));
+            return FAILURE;
+        }
+        final Map<String, Command<Object>> previous = (Map<String, Command<Object>>) parameterObject
+                .get(COMMAND_INSTANCES.toString());
+        final Map<String, Command<Object>> instances = previous == null ? null : new HashMap<>();
+        final FragmentCache<Object> fragments = (FragmentCache<Object>) parameterObject
+                .get(FRAGMENT_CACHE.toString());
 
         for (final Action action : actionList) {
 
             final String classname = action.getClassname();
+            if (action.getDefinition() != null) {
+                if (fragments == null) {
+                    parameterObject.put(ERROR_STRING.toString(),
+                            "No FRAGMENT_CACHE for sub-process " + action.getDefinition());
+                    return FAILURE;
+                }
+                final SubProcessCommand<Object> subprocess = new SubProcessCommand<>(action.getDefinition(),
+                        action.getStart(), fragments);
+                subprocess.setProcessID(action.getId());
+                action.getTransitions().forEach(subprocess::addTransition);
+                defaultCommandContainer.addCommand(subprocess);
+                continue;
+            }
+            final String key = previous == null ? null : instanceKey(action, instances);
+            final Command<Object> reused = previous == null ? null : reuse(previous.get(key), action);
+            if (reused != null) {
+                defaultCommandContainer.addCommand(reused);
+                instances.put(key, reused);
+                continue;
+            }
+            if (lazy && action.getId() != null) {
+                final LazyProcessCommand<Object> placeholder = new LazyProcessCommand<>(classname, action.getId());
+                action.getTransitions().forEach(placeholder::addTransition);
+                defaultCommandContainer.addCommand(placeholder);
+                if (instances != null) {
+                    instances.put(key, placeholder);
+                }
+                continue;
+            }
             Command<Object> command = null;
             try {
                 command = (Command<Object>) Class.forName(classname).getDeclaredConstructor().newInstance();
@@ -71,10 +144,52 @@ public class ActionListToCommandContainerCommand extends AbstractDefaultCommand<
                     ((ProcessCommand<Object>) command).addTransition(transition);
                 }
             }
+            if (instances != null) {
+                instances.put(key, command);
+            }
 
         }
+
         parameterObject.put(COMMAND_CONTAINER.toString(), defaultCommandContainer);
+        if (instances != null) {
+            parameterObject.put(COMMAND_INSTANCES.toString(), instances);
+        }
         return SUCCESS;
     }
 
+    /** Actions are identified by class and ID, actions without ID by class and
+     * their position among the actions of the same class. */
+    private static String instanceKey(final Action action, final Map<String, Command<Object>> instances) {
+        if (action.getId() != null) {
+            return action.getClassname() + "#" + action.getId();
+        }
+        int position = 0;
+        while (instances.containsKey(action.getClassname() + "@" + position)) {
+            position++;
+        }
+        return action.getClassname() + "@" + position;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Command<Object> reuse(final Command<Object> command, final Action action) {
+        final List<Transition> transitions = action.getTransitions();
+        if (command == null || !(command instanceof ProcessCommand)) {
+            return command != null && transitions.isEmpty() ? command : null;
+        }
+        return sameRouting(((ProcessCommand<Object>) command).getTransitionList(), transitions) ? command : null;
+    }
+
+    private static boolean sameRouting(final List<Transition> current, final List<Transition> transitions) {
+        if (current.size() != transitions.size()) {
+            return false;
+        }
+        for (int i = 0; i < current.size(); i++) {
+            if (!Objects.equals(current.get(i).getReturnValue(), transitions.get(i).getReturnValue())
+                    || !Objects.equals(current.get(i).getTarget(), transitions.get(i).getTarget())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -0,0 +1,291 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.sax;
+
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.process.DefaultTransition;
+import org.xml.sax.InputSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
+import static org.mwolff.command.sax.GlobalCommandConstants.*;
+
+/** Binary representation of a parsed chain or process definition: the actions
+ * with their transitions and the declared start. Loading it needs neither XML
+ * parsing nor schema work.
+ *
+ * The format is a 32 byte header followed by the payload, all big endian:
+ * magic <code>SCFB</code>, version, reserved, length and CRC32 of the XML
+ * source, payload length and CRC32 of the payload. Strings
+ * are written as unsigned 16 bit length and UTF-8 bytes, <code>null</code>
+ * as length 0xFFFF.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public final class BinaryDefinition {
+
+    /** Suffix of binary definitions, appended to the name of the XML file. */
+    public static final String SUFFIX = ".scfb";
+
+    static final int MAGIC = 0x53434642;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private static final int NULL_STRING = 0xFFFF;
+
+    private final List<Action> actions;
+    private final String start;
+    private final long sourceLength;
+    private final long sourceChecksum;
+
+    /** Constructor.
+     *
+     * @param actions
+     *            The actions of the definition.
+     * @param start
+     *            The declared start or <code>null</code>.
+     * @param sourceLength
+     *            Length of the XML source in bytes.
+     * @param sourceChecksum
+     *            CRC32 of the XML source, see {@link #checksum(ByteBuffer)}. */
+    public BinaryDefinition(final List<Action> actions, final String start, final long sourceLength,
+            final long sourceChecksum) {
+        this.actions = new ArrayList<>(actions);
+        this.start = start;
+        this.sourceLength = sourceLength;
+        this.sourceChecksum = sourceChecksum;
+    }
+
+    public List<Action> getActions() {
+        return new ArrayList<>(actions);
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public long getSourceLength() {
+        return sourceLength;
+    }
+
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    /** @param source
+     *            The content of the XML source. Its position is not changed.
+     * @return <code>true</code> if this definition was created from another
+     *         content of the source. */
+    public boolean isStale(final ByteBuffer source) {
+        return source.remaining() != sourceLength || checksum(source) != sourceChecksum;
+    }
+
+    /** @param source
+     *            The content of an XML source. Its position is not changed.
+     * @return The CRC32 of the content. */
+    public static long checksum(final ByteBuffer source) {
+        final CRC32 crc = new CRC32();
+        crc.update(source.duplicate());
+        return crc.getValue();
+    }
+
+    /** Writes the definition.
+     *
+     * @param output
+     *            The stream to write to. It is not closed.
+     * @throws IOException
+     *             if writing fails or a string is too long. */
+    public void writeTo(final OutputStream output) throws IOException {
+        final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        final DataOutputStream payload = new DataOutputStream(payloadBytes);
+        writeString(payload, start);
+        payload.writeInt(actions.size());
+        for (final Action action : actions) {
+            writeString(payload, action.getClassname());
+            writeString(payload, action.getId());
+            writeString(payload, action.getDefinition());
+            writeString(payload, action.getStart());
+            final List<Transition> transitions = action.getTransitions();
+            if (transitions.size() >= 0xFFFF) {
+                throw new IOException("Too many transitions for binary definition.");
+            }
+            payload.writeShort(transitions.size());
+            for (final Transition transition : transitions) {
+                writeString(payload, transition.getReturnValue());
+                writeString(payload, transition.getTarget());
+            }
+        }
+        final byte[] bytes = payloadBytes.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        final DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+        out.writeLong(sourceLength);
+        out.writeLong(sourceChecksum);
+        out.writeInt(bytes.length);
+        out.writeInt((int) crc.getValue());
+        out.write(bytes);
+        out.flush();
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeShort(NULL_STRING);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IOException("String too long for binary definition.");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /** Reads a definition.
+     *
+     * @param buffer
+     *            The binary definition, e.g. a memory mapped file. Its
+     *            position is not changed.
+     * @return The definition.
+     * @throws IOException
+     *             if the buffer is no binary definition of this version or
+     *             the checksum does not match. */
+    public static BinaryDefinition read(final ByteBuffer buffer) throws IOException {
+        final ByteBuffer in = buffer.duplicate();
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("No binary definition.");
+            }
+            final int version = in.getShort() & NULL_STRING;
+            if (version != VERSION) {
+                throw new IOException("Unsupported version " + version + " of binary definition.");
+            }
+            in.getShort();
+            final long sourceLength = in.getLong();
+            final long sourceChecksum = in.getLong();
+            final int length = in.getInt();
+            final int checksum = in.getInt();
+            if (length < 0 || length > in.remaining()) {
+                throw new IOException("Binary definition is truncated.");
+            }
+            final ByteBuffer payload = in.slice();
+            payload.limit(length);
+            final CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Checksum of binary definition does not match.");
+            }
+
+            final String start = readString(payload);
+            final int count = payload.getInt();
+            final List<Action> actions = new ArrayList<>(Math.min(count, length));
+            for (int i = 0; i < count; i++) {
+                final Action action = new Action();
+                action.setClassname(readString(payload));
+                action.setId(readString(payload));
+                action.setDefinition(readString(payload));
+                action.setStart(readString(payload));
+                final int transitions = payload.getShort() & NULL_STRING;
+                for (int j = 0; j < transitions; j++) {
+                    final Transition transition = new DefaultTransition();
+                    transition.setReturnValue(readString(payload));
+                    transition.setTarget(readString(payload));
+                    action.setTransition(transition);
+                }
+                actions.add(action);
+            }
+            return new BinaryDefinition(actions, start, sourceLength, sourceChecksum);
+        } catch (final BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Binary definition is corrupt.", e);
+        }
+    }
+
+    private static String readString(final ByteBuffer in) {
+        final int length = in.getShort() & NULL_STRING;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Parses an XML definition.
+     *
+     * @param xml
+     *            The XML file.
+     * @return The binary definition of the file.
+     * @throws IOException
+     *             if the file cannot be read or parsed. */
+    public static BinaryDefinition fromXML(final Path xml) throws IOException {
+        final byte[] source = Files.readAllBytes(xml);
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(INPUT_SOURCE, new InputSource(new ByteArrayInputStream(source)));
+        if (new SaxParserCommand().executeCommand(context) == FAILURE) {
+            throw new IOException("Cannot parse " + xml + ": " + context.getAsString(ERROR_STRING));
+        }
+        @SuppressWarnings("unchecked")
+        final List<Action> actions = (List<Action>) context.get(ACTION_LIST);
+        return new BinaryDefinition(actions, (String) context.get(PROCESS_START), source.length,
+                checksum(ByteBuffer.wrap(source)));
+    }
+
+    /** Converts XML definitions into binary definitions next to them, e.g.
+     * while building the application.
+     *
+     * @param args
+     *            The XML files.
+     * @throws IOException
+     *             if a file cannot be converted. */
+    public static void main(final String[] args) throws IOException {
+        for (final String file : args) {
+            final Path xml = Paths.get(file);
+            try (OutputStream output = Files.newOutputStream(xml.resolveSibling(xml.getFileName() + SUFFIX))) {
+                fromXML(xml).writeTo(output);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.sax;
+
+import org.mwolff.command.AbstractDefaultCommand;
+import org.mwolff.command.interfaces.CommandTransition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
+import static org.mwolff.command.interfaces.CommandTransition.SUCCESS;
+import static org.mwolff.command.sax.GlobalCommandConstants.*;
+
+/** Loads the binary definition of the XML resource in FILE_NAME instead of
+ * parsing the XML. The binary definition is expected next to the XML resource
+ * with the suffix {@link BinaryDefinition#SUFFIX}; files are memory mapped.
+ * Returns FAILURE without an error if there is no binary definition, if it is
+ * unreadable or if it is stale, i.e. the XML resource has another length or
+ * CRC32 than the one it was created from. The XML is parsed then; checking
+ * the checksum only reads the XML.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class BinaryDefinitionReaderCommand extends AbstractDefaultCommand<SaxParameterObject> {
+
+    @Override
+    public CommandTransition executeCommand(final SaxParameterObject parameterObject) {
+        if (!(parameterObject.get(FILE_NAME.toString()) instanceof String)) {
+            return FAILURE;
+        }
+        String filename = parameterObject.getAsString(FILE_NAME.toString());
+        if (!filename.startsWith("/")) {
+            filename = "/" + filename;
+        }
+        final URL binary = getClass().getResource(filename + BinaryDefinition.SUFFIX);
+        if (binary == null) {
+            return FAILURE;
+        }
+        try {
+            final BinaryDefinition definition = BinaryDefinition.read(load(binary));
+            final URL xml = getClass().getResource(filename);
+            if (xml != null && definition.isStale(load(xml))) {
+                return FAILURE;
+            }
+            parameterObject.put(ACTION_LIST, definition.getActions());
+            if (definition.getStart() != null) {
+                parameterObject.put(PROCESS_START, definition.getStart());
+            }
+            return SUCCESS;
+        } catch (final IOException e) {
+            return FAILURE;
+        }
+    }
+
+    private static ByteBuffer load(final URL url) throws IOException {
+        final Path file = toPath(url);
+        if (file != null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        try (InputStream input = url.openStream()) {
+            return ByteBuffer.wrap(input.readAllBytes());
+        }
+    }
+
+    private static Path toPath(final URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (final URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -28,6 +28,6 @@
 package org.mwolff.command.sax;
 
 public enum GlobalCommandConstants {
-    FILE_NAME, INPUT_SOURCE, ERROR_STRING, ACTION_LIST, COMMAND_CONTAINER
+    FILE_NAME, INPUT_SOURCE, ERROR_STRING, ACTION_LIST, COMMAND_CONTAINER, PROCESS_START, COMMAND_INSTANCES, FRAGMENT_CACHE
 
 }
@@ -31,32 +31,111 @@ import org.mwolff.command.AbstractDefaultCommand;
 import org.mwolff.command.interfaces.CommandTransition;
 import org.xml.sax.InputSource;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
 import static org.mwolff.command.interfaces.CommandTransition.SUCCESS;
 import static org.mwolff.command.sax.GlobalCommandConstants.*;
 
+/** Opens the definition in FILE_NAME as INPUT_SOURCE. FILE_NAME may be
+ * <ul>
+ * <li>a String, looked up as classpath resource first and as file path
+ * second,</li>
+ * <li>a {@link Path}, {@link File} or {@link URI},</li>
+ * <li>a byte array holding the definition itself.</li>
+ * </ul>
+ * Files of at least {@link #MAP_THRESHOLD} bytes are memory mapped and fed to
+ * the parser directly.
+ *
+ * @author Manfred Wolff */
 public class InputSourceReaderCommand extends AbstractDefaultCommand<SaxParameterObject> {
 
+    /** Files of this size or larger are memory mapped.
+     *
+     * @since 2.1.0 */
+    public static final long MAP_THRESHOLD = 64 * 1024;
+
     @Override
     public CommandTransition executeCommand(SaxParameterObject parameterObject) {
 
-        String filename = parameterObject.getAsString(FILE_NAME.toString());
-        if (!filename.startsWith(File.separator)) {
-            filename = File.separator + filename;
+        final Object source = parameterObject.get(FILE_NAME.toString());
+        final InputSource inputSource;
+        try {
+            inputSource = open(source);
+        } catch (final IOException | IllegalArgumentException e) {
+            parameterObject.put(ERROR_STRING.toString(), "Error reading resource. " + e.getMessage());
+            return FAILURE;
         }
 
-        final InputStream inputStream = this.getClass().getResourceAsStream(filename);
-
-        if (inputStream == null) {
+        if (inputSource == null) {
             parameterObject.put(ERROR_STRING.toString(), "Error reading resource. Resource not found.");
             return FAILURE;
         }
-        final InputSource inputSource = new InputSource(inputStream);
         parameterObject.put(INPUT_SOURCE.toString(), inputSource);
         return SUCCESS;
     }
 
+    private InputSource open(final Object source) throws IOException {
+        if (source instanceof byte[]) {
+            return new InputSource(new ByteArrayInputStream((byte[]) source));
+        }
+        if (source instanceof Path) {
+            return open((Path) source);
+        }
+        if (source instanceof File) {
+            return open(((File) source).toPath());
+        }
+        if (source instanceof URI) {
+            final URI uri = (URI) source;
+            if ("file".equals(uri.getScheme())) {
+                return open(Paths.get(uri));
+            }
+            final InputSource inputSource = new InputSource(uri.toURL().openStream());
+            inputSource.setSystemId(uri.toString());
+            return inputSource;
+        }
+        if (source == null) {
+            return null;
+        }
+
+        String filename = source.toString();
+        if (!filename.startsWith(File.separator)) {
+            filename = File.separator + filename;
+        }
+
+        final InputStream inputStream = this.getClass().getResourceAsStream(filename);
+        if (inputStream != null) {
+            return new InputSource(inputStream);
+        }
+        try {
+            return open(Paths.get(source.toString()));
+        } catch (final InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static InputSource open(final Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        final InputStream inputStream;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            inputStream = channel.size() >= MAP_THRESHOLD
+                    ? new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()))
+                    : new ByteArrayInputStream(Files.readAllBytes(file));
+        }
+        final InputSource inputSource = new InputSource(inputStream);
+        inputSource.setSystemId(file.toUri().toString());
+        return inputSource;
+    }
 }
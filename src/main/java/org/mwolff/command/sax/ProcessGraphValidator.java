@@ -0,0 +1,255 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.sax;
+
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.process.AbstractDefaultProcessCommand;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Static validation of a process definition before it is executed. Detects
+ * duplicate process IDs, transitions to unknown actions, transitions on
+ * classes which are no process commands and transitions on actions without
+ * ID. If the start action of the process is known, actions not reachable from
+ * it are detected as well.
+ *
+ * A transition to {@link ProcessCommand#END} always ends the process and
+ * needs no action. Since a process command may also end the process by
+ * returning a result without transition, cycles without exit are only
+ * reported as warnings, see {@link #warnings(List, String)}.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public final class ProcessGraphValidator {
+
+    private ProcessGraphValidator() {
+    }
+
+    /** Validates a process definition.
+     *
+     * @param actions
+     *            The actions of the process.
+     * @param start
+     *            The ID of the start action or <code>null</code> if unknown.
+     * @return All errors found, empty if the definition is valid. */
+    public static List<String> validate(final List<Action> actions, final String start) {
+        final List<String> errors = new ArrayList<>();
+        final Map<String, Action> byID = new LinkedHashMap<>();
+
+        for (final Action action : actions) {
+            final String id = action.getId();
+            if (id != null && byID.putIfAbsent(id, action) != null) {
+                errors.add("Duplicate process ID '" + id + "'");
+            }
+        }
+
+        for (final Action action : actions) {
+            final List<Transition> transitions = action.getTransitions();
+            if (transitions.isEmpty()) {
+                continue;
+            }
+            if (action.getId() == null) {
+                errors.add("Action of class " + action.getClassname() + " has transitions but no ID");
+            }
+            if (!isProcessCommand(action)) {
+                errors.add("Action " + name(action) + " has transitions but " + action.getClassname()
+                        + " is no ProcessCommand");
+            }
+            for (final Transition transition : transitions) {
+                final String target = transition.getTarget();
+                if (target == null || transition.getReturnValue() == null) {
+                    errors.add("Action " + name(action) + " has a transition without name or target");
+                } else if (!ProcessCommand.END.equals(target) && !byID.containsKey(target)) {
+                    errors.add("Action " + name(action) + ": transition '" + transition.getReturnValue()
+                            + "' targets unknown action '" + target + "'");
+                }
+            }
+        }
+
+        if (start != null) {
+            validateFromStart(actions, byID, start, errors);
+        }
+        return errors;
+    }
+
+    /** Walks the transitions from the start action. An action whose class
+     * does not route by its transitions, see
+     * {@link AbstractDefaultProcessCommand#routesByTransitions()}, may reach
+     * any action.
+     *
+     * @param actions
+     *            The actions of the process.
+     * @param start
+     *            The ID of the start action.
+     * @return The IDs of all actions reachable from the start action,
+     *         including it. Empty if there is no such action.
+     * @since 2.1.0 */
+    public static Set<String> reachable(final List<Action> actions, final String start) {
+        final Map<String, Action> byID = new HashMap<>();
+        for (final Action action : actions) {
+            if (action.getId() != null) {
+                byID.putIfAbsent(action.getId(), action);
+            }
+        }
+        final Set<String> reachable = new HashSet<>();
+        if (!byID.containsKey(start)) {
+            return reachable;
+        }
+        final Deque<String> queue = new ArrayDeque<>();
+        reachable.add(start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            final Action action = byID.get(queue.poll());
+            if (!routesByTransitions(action)) {
+                return new HashSet<>(byID.keySet());
+            }
+            for (final Transition transition : action.getTransitions()) {
+                final String target = transition.getTarget();
+                if (byID.containsKey(target) && reachable.add(target)) {
+                    queue.add(target);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /** Detects cycles without exit: actions reachable from the start action
+     * from which no transition leads to the end of the process. They are no
+     * errors, because a process command ends the process as well when it
+     * returns a result without transition. Actions whose class does not route
+     * by its transitions count as exits.
+     *
+     * @param actions
+     *            The actions of the process.
+     * @param start
+     *            The ID of the start action.
+     * @return All warnings, empty if there are none or the start action does
+     *         not exist.
+     * @since 2.1.0 */
+    public static List<String> warnings(final List<Action> actions, final String start) {
+        final Map<String, Action> byID = new LinkedHashMap<>();
+        for (final Action action : actions) {
+            if (action.getId() != null) {
+                byID.putIfAbsent(action.getId(), action);
+            }
+        }
+        final List<String> warnings = new ArrayList<>();
+        final Set<String> reachable = reachable(actions, start);
+
+        // Walk the transitions backwards from every action ending the process.
+        final Map<String, List<String>> predecessors = new HashMap<>();
+        final Set<String> canExit = new HashSet<>();
+        final Deque<String> queue = new ArrayDeque<>();
+        for (final Action action : byID.values()) {
+            boolean exit = action.getTransitions().isEmpty() || !routesByTransitions(action);
+            for (final Transition transition : action.getTransitions()) {
+                final String target = transition.getTarget();
+                if (byID.containsKey(target)) {
+                    predecessors.computeIfAbsent(target, key -> new ArrayList<>()).add(action.getId());
+                } else {
+                    exit = true;
+                }
+            }
+            if (exit && canExit.add(action.getId())) {
+                queue.add(action.getId());
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (final String predecessor : predecessors.getOrDefault(queue.poll(), new ArrayList<>())) {
+                if (canExit.add(predecessor)) {
+                    queue.add(predecessor);
+                }
+            }
+        }
+        for (final String id : byID.keySet()) {
+            if (reachable.contains(id) && !canExit.contains(id)) {
+                warnings.add("Action '" + id + "' is part of a cycle without exit");
+            }
+        }
+        return warnings;
+    }
+
+    private static void validateFromStart(final List<Action> actions, final Map<String, Action> byID,
+            final String start, final List<String> errors) {
+        if (!byID.containsKey(start)) {
+            errors.add("Start action '" + start + "' does not exist");
+            return;
+        }
+        final Set<String> reachable = reachable(actions, start);
+        for (final Action action : actions) {
+            if (action.getId() == null || !reachable.contains(action.getId())) {
+                errors.add("Action " + name(action) + " is not reachable from '" + start + "'");
+            }
+        }
+    }
+
+    private static boolean isProcessCommand(final Action action) {
+        if (action.getDefinition() != null) {
+            // A sub-process.
+            return true;
+        }
+        final Class<?> type = load(action);
+        // Without class the command is created by a factory typed to process
+        // commands, an unknown class is reported while instantiating it.
+        return type == null || ProcessCommand.class.isAssignableFrom(type);
+    }
+
+    private static boolean routesByTransitions(final Action action) {
+        if (action.getDefinition() != null) {
+            // A sub-process.
+            return true;
+        }
+        final Class<?> type = load(action);
+        return type != null && AbstractDefaultProcessCommand.routesByTransitions(type);
+    }
+
+    private static Class<?> load(final Action action) {
+        if (action.getClassname() == null) {
+            return null;
+        }
+        try {
+            return Class.forName(action.getClassname(), false, ProcessGraphValidator.class.getClassLoader());
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static String name(final Action action) {
+        return action.getId() == null ? action.getClassname() : "'" + action.getId() + "'";
+    }
+}
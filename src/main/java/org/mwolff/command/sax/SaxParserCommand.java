@@ -35,6 +35,7 @@ import org.xml.sax.XMLReader;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import java.io.IOException;
 
@@ -42,32 +43,64 @@ import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
 import static org.mwolff.command.interfaces.CommandTransition.SUCCESS;
 import static org.mwolff.command.sax.GlobalCommandConstants.*;
 
+/** Parses the INPUT_SOURCE with a SAX parser into the ACTION_LIST. The
+ * factory is created and hardened once and never reconfigured; every thread
+ * reuses its own parser.
+ *
+ * @author Manfred Wolff */
 public class SaxParserCommand extends AbstractDefaultCommand<SaxParameterObject> {
 
+    private static final SAXParserFactory FACTORY = createFactory();
+    private static final ThreadLocal<SAXParser> PARSERS = new ThreadLocal<>();
+
+    private static SAXParserFactory createFactory() {
+        final SAXParserFactory factory = SAXParserFactory.newInstance();
+        try {
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("Cannot harden the SAX parser factory", e);
+        }
+        factory.setNamespaceAware(true);
+        return factory;
+    }
+
     @Override
     public CommandTransition executeCommand(SaxParameterObject parameterObject) {
 
         try {
             final InputSource inputSource = (InputSource) parameterObject.get(INPUT_SOURCE);
 
-            SAXParserFactory parserFactory = SAXParserFactory.newInstance();
-            parserFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            parserFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            parserFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            parserFactory.setNamespaceAware(true);
-            final XMLReader xmlReader = parserFactory.newSAXParser().getXMLReader();
+            final XMLReader xmlReader = parser().getXMLReader();
             xmlReader.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, ""); // Compliant
             xmlReader.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, ""); // compliant
             final ActionContentHandler handler = new ActionContentHandler();
             xmlReader.setContentHandler(handler);
             xmlReader.parse(inputSource);
             parameterObject.put(ACTION_LIST, handler.getActions());
+            if (handler.getStart() != null) {
+                parameterObject.put(PROCESS_START, handler.getStart());
+            }
 
         } catch (IOException | SAXException | ParserConfigurationException e) {
+            PARSERS.remove();
             parameterObject.put(ERROR_STRING, e.getMessage());
             return FAILURE;
         }
         return SUCCESS;
     }
 
+    private static SAXParser parser() throws ParserConfigurationException, SAXException {
+        SAXParser parser = PARSERS.get();
+        if (parser == null) {
+            synchronized (FACTORY) {
+                parser = FACTORY.newSAXParser();
+            }
+            PARSERS.set(parser);
+        } else {
+            parser.reset();
+        }
+        return parser;
+    }
 }
@@ -0,0 +1,133 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.sax;
+
+import org.mwolff.command.AbstractDefaultCommand;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+
+import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
+import static org.mwolff.command.interfaces.CommandTransition.SUCCESS;
+import static org.mwolff.command.sax.GlobalCommandConstants.*;
+
+/** Parses the INPUT_SOURCE with a StAX pull parser into the ACTION_LIST, like
+ * {@link SaxParserCommand} and with the same element mapping of
+ * {@link ActionContentHandler}. The factory is looked up and hardened once; it is
+ * never reconfigured afterwards, so creating readers is thread-safe. Documents
+ * with a DOCTYPE are rejected. The streams of the input source are closed after
+ * parsing.
+ *
+ * @author Manfred Wolff
+ * @since 2.1.0 */
+public class StaxParserCommand extends AbstractDefaultCommand<SaxParameterObject> {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static XMLInputFactory createFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        return factory;
+    }
+
+    @Override
+    public CommandTransition executeCommand(final SaxParameterObject parameterObject) {
+        final InputSource inputSource = (InputSource) parameterObject.get(INPUT_SOURCE);
+        final ActionContentHandler handler = new ActionContentHandler();
+        try {
+            final XMLStreamReader reader = createReader(inputSource);
+            final ActionContentHandler.AttributeSource attributes = name -> reader.getAttributeValue(null, name);
+            try {
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        handler.startElement(reader.getLocalName(), attributes);
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        handler.endElement(reader.getLocalName());
+                    } else if (event == XMLStreamConstants.DTD) {
+                        throw new XMLStreamException("DOCTYPE is disallowed.", reader.getLocation());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException e) {
+            parameterObject.put(ERROR_STRING, e.getMessage());
+            return FAILURE;
+        } finally {
+            close(inputSource);
+        }
+        parameterObject.put(ACTION_LIST, handler.getActions());
+        if (handler.getStart() != null) {
+            parameterObject.put(PROCESS_START, handler.getStart());
+        }
+        return SUCCESS;
+    }
+
+    /** Closes the streams of the input source, the reader does not. */
+    private static void close(final InputSource inputSource) {
+        if (inputSource == null) {
+            return;
+        }
+        try {
+            if (inputSource.getCharacterStream() != null) {
+                inputSource.getCharacterStream().close();
+            }
+            if (inputSource.getByteStream() != null) {
+                inputSource.getByteStream().close();
+            }
+        } catch (final IOException e) {
+            // The document is parsed already.
+        }
+    }
+
+    private static XMLStreamReader createReader(final InputSource inputSource) throws XMLStreamException {
+        if (inputSource == null) {
+            throw new XMLStreamException("No input source.");
+        }
+        if (inputSource.getCharacterStream() != null) {
+            return FACTORY.createXMLStreamReader(inputSource.getCharacterStream());
+        }
+        if (inputSource.getByteStream() != null) {
+            return inputSource.getEncoding() == null ? FACTORY.createXMLStreamReader(inputSource.getByteStream())
+                    : FACTORY.createXMLStreamReader(inputSource.getByteStream(), inputSource.getEncoding());
+        }
+        throw new XMLStreamException("Input source without stream.");
+    }
+}
@@ -0,0 +1,150 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandListener;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.DefaultTransition;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+import org.mwolff.command.testcommand.TestCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mwolff.command.interfaces.CommandTransition.*;
+
+public class CommandListenerTest {
+
+    private final List<String> events = new ArrayList<>();
+    private DefaultCommandContainer<GenericParameterObject> container;
+    private GenericParameterObject context;
+
+    private CommandListener<GenericParameterObject> recordingListener(final String name) {
+        return new CommandListener<GenericParameterObject>() {
+
+            @Override
+            public void beforeExecution(final Command<GenericParameterObject> command,
+                    final GenericParameterObject parameterObject) {
+                events.add(name + ":before");
+            }
+
+            @Override
+            public void afterExecution(final Command<GenericParameterObject> command,
+                    final GenericParameterObject parameterObject, final CommandTransition transition) {
+                events.add(name + ":after:" + transition);
+            }
+
+            @Override
+            public void onFailure(final Command<GenericParameterObject> command,
+                    final GenericParameterObject parameterObject, final RuntimeException exception) {
+                events.add(name + ":failure:" + exception.getMessage());
+            }
+
+            @Override
+            public void onTransition(final ProcessCommand<GenericParameterObject> command,
+                    final GenericParameterObject parameterObject, final String result, final String next) {
+                events.add(name + ":transition:" + result + "->" + next);
+            }
+        };
+    }
+
+    @BeforeEach
+    public void setUp() {
+        container = new DefaultCommandContainer<>();
+        context = new DefaultParameterObject();
+    }
+
+    @Test
+    public void testListenerOnExecuteCommand() {
+        container.addCommandListener(recordingListener("l"));
+        container.addCommand(1, new TestCommand("1-", NEXT));
+        container.addCommand(2, new TestCommand("2-", NEXT));
+        final CommandTransition result = container.executeCommand(context);
+        assertThat(result, is(SUCCESS));
+        assertThat(events, is(List.of("l:before", "l:after:SUCCESS", "l:before", "l:after:SUCCESS")));
+    }
+
+    @Test
+    public void testListenerOnExecuteCommandAsChain() {
+        container.addCommandListener(recordingListener("l"));
+        container.addCommand(1, new TestCommand("1-", DONE));
+        container.addCommand(2, new TestCommand("2-", NEXT));
+        final CommandTransition result = container.executeCommandAsChain(context);
+        assertThat(result, is(DONE));
+        assertThat(context.getAsString("resultString"), is("1-"));
+        assertThat(events, is(List.of("l:before", "l:after:DONE")));
+    }
+
+    @Test
+    public void testListenerOnException() {
+        container.addCommandListener(recordingListener("l"));
+        container.addCommand(parameterObject -> {
+            throw new CommandException("boom");
+        });
+        assertThrows(CommandException.class, () -> container.executeCommand(context));
+        assertThat(events, is(List.of("l:before", "l:failure:boom")));
+    }
+
+    @Test
+    public void testListenerOnProcess() {
+        container.addCommandListener(recordingListener("l"));
+        final ProcessTestCommandStart<GenericParameterObject> start = new ProcessTestCommandStart<>("Start");
+        final Transition transition = new DefaultTransition();
+        transition.setReturnValue("OK");
+        transition.setTarget("Next");
+        start.addTransition(transition);
+        container.addCommand(start);
+        container.addCommand(new ProcessTestCommandEnd<>("Next"));
+
+        final String result = container.executeAsProcess("Start", context);
+        assertThat(result, is((String) null));
+        assertThat(context.getAsString("result"), is("Start - Next - "));
+        assertThat(events, is(List.of("l:before", "l:transition:OK->Next", "l:after:NEXT", "l:before",
+                "l:transition:null->null", "l:after:DONE")));
+    }
+
+    @Test
+    public void testComposedListenersAreNested() {
+        container.addCommandListener(recordingListener("a")).addCommandListener(recordingListener("b"));
+        container.addCommand(new TestCommand("1-", NEXT));
+        container.executeCommand(context);
+        assertThat(events, is(List.of("a:before", "b:before", "b:after:SUCCESS", "a:after:SUCCESS")));
+    }
+}
@@ -31,6 +31,10 @@ import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mwolff.command.chain.AbstractDefaultChainCommand;
+import org.mwolff.command.interfaces.BatchCommand;
+import org.mwolff.command.interfaces.BatchMode;
+import org.mwolff.command.interfaces.ChainCommand;
 import org.mwolff.command.interfaces.Command;
 import org.mwolff.command.interfaces.CommandContainer;
 import org.mwolff.command.interfaces.CommandTransition;
@@ -42,7 +46,11 @@ import org.mwolff.command.samplecommands.*;
 import org.mwolff.command.testcommand.TestCommand;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Vector;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -255,6 +263,24 @@ public class DefaultCommandContainerTest {
         assertSame(found, search);
     }
 
+    @Test
+    public void testGetCommandByProcessIDUsesIndex() throws Exception {
+        final ProcessTestCommandStart<GenericParameterObject> first = new ProcessTestCommandStart<>("Start");
+        commandContainer.addCommand(1, new TestCommand("1-", SUCCESS));
+        commandContainer.addCommand(2, first);
+        commandContainer.addCommand(3, new ProcessTestCommandStart<>("Start"));
+        assertSame(first, commandContainer.getCommandByProcessID("Start"));
+        assertNull(commandContainer.getCommandByProcessID("Next"));
+
+        final ProcessTestCommandNext<GenericParameterObject> next = new ProcessTestCommandNext<>("Next");
+        commandContainer.addCommand(4, next);
+        assertSame(next, commandContainer.getCommandByProcessID("Next"));
+
+        first.setProcessID("Renamed");
+        assertNotSame(first, commandContainer.getCommandByProcessID("Start"));
+        assertSame(first, commandContainer.getCommandByProcessID("Renamed"));
+    }
+
     /*
      * Remark: You can add either commands or command lists.
      */
@@ -283,4 +309,137 @@ public class DefaultCommandContainerTest {
         });
         assertThat(exception.getMessage(), CoreMatchers.is("ProcessID cannot be set on Container."));
     }
+
+    private static DefaultCommandContainer<GenericParameterObject> batchContainer(final List<String> log) {
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommand(1, context -> {
+            log.add("first");
+            return context.get("fail") == null ? SUCCESS : CommandTransition.FAILURE;
+        });
+        container.addCommand(2, context -> {
+            log.add("second");
+            context.put("second", "done");
+            return SUCCESS;
+        });
+        return container;
+    }
+
+    private static List<GenericParameterObject> batch() {
+        final GenericParameterObject failing = new DefaultParameterObject();
+        failing.put("fail", "yes");
+        return Arrays.asList(new DefaultParameterObject(), failing, new DefaultParameterObject());
+    }
+
+    @Test
+    public void testExecuteBatchModes() throws Exception {
+        final byte[] expected = { (byte) SUCCESS.ordinal(), (byte) CommandTransition.FAILURE.ordinal(),
+                (byte) SUCCESS.ordinal() };
+        for (final BatchMode mode : BatchMode.values()) {
+            final List<GenericParameterObject> batch = batch();
+            assertArrayEquals(expected, batchContainer(new Vector<>()).executeBatch(batch, mode), mode.name());
+            assertEquals("done", batch.get(0).getAsString("second"));
+            assertEquals("", batch.get(1).getAsString("second"));
+        }
+        final GenericParameterObject[] array = batch().toArray(new GenericParameterObject[0]);
+        assertArrayEquals(expected, batchContainer(new Vector<>()).executeBatch(array));
+        assertEquals(0, new DefaultCommandContainer<GenericParameterObject>().executeBatch(new ArrayList<>()).length);
+    }
+
+    @Test
+    public void testExecuteBatchCommandMajorOrder() throws Exception {
+        final List<String> log = new ArrayList<>();
+        batchContainer(log).executeBatch(batch(), BatchMode.COMMAND_MAJOR);
+        assertEquals(Arrays.asList("first", "first", "first", "second", "second"), log);
+
+        log.clear();
+        batchContainer(log).executeBatch(batch());
+        assertEquals(Arrays.asList("first", "second", "first", "first", "second"), log);
+    }
+
+    private static BatchCommand<GenericParameterObject> batchCommand(final List<Integer> calls) {
+        return parameterObjects -> {
+            calls.add(parameterObjects.size());
+            final CommandTransition[] transitions = new CommandTransition[parameterObjects.size()];
+            for (int i = 0; i < transitions.length; i++) {
+                parameterObjects.get(i).put("batch", "done");
+                transitions[i] = SUCCESS;
+            }
+            return transitions;
+        };
+    }
+
+    @Test
+    public void testBatchCommandIsCalledOnce() throws Exception {
+        final List<Integer> calls = new ArrayList<>();
+        final DefaultCommandContainer<GenericParameterObject> nested = new DefaultCommandContainer<>();
+        nested.addCommand(batchCommand(calls));
+        final DefaultCommandContainer<GenericParameterObject> container = batchContainer(new ArrayList<>());
+        container.addCommand(3, batchCommand(calls)).addCommand(4, nested);
+        final List<GenericParameterObject> batch = batch();
+
+        final byte[] results = container.executeBatch(batch, BatchMode.COMMAND_MAJOR);
+        assertEquals(Arrays.asList(2, 2), calls);
+        assertEquals(CommandTransition.FAILURE.ordinal(), results[1]);
+        assertEquals(SUCCESS.ordinal(), results[2]);
+        assertEquals("done", batch.get(2).getAsString("batch"));
+        assertEquals("", batch.get(1).getAsString("batch"));
+
+        calls.clear();
+        container.executeBatch(batch(), BatchMode.SEQUENTIAL);
+        assertEquals(Arrays.asList(1, 1, 1, 1), calls);
+    }
+
+    @Test
+    public void testBatchCommandWithWrongResultLength() throws Exception {
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommand((BatchCommand<GenericParameterObject>) parameterObjects -> new CommandTransition[0]);
+        final CommandException exception = assertThrows(CommandException.class,
+                () -> container.executeBatch(batch(), BatchMode.COMMAND_MAJOR));
+        assertThat(exception.getMessage(), CoreMatchers.endsWith(" returned 0 transitions for 3 parameter objects"));
+    }
+
+    private static ChainCommand<GenericParameterObject> chainCommand(final String name, final List<String> log) {
+        return new AbstractDefaultChainCommand<GenericParameterObject>() {
+            @Override
+            public CommandTransition executeCommand(final GenericParameterObject context) {
+                return SUCCESS;
+            }
+
+            @Override
+            public CommandTransition executeCommandAsChain(final GenericParameterObject context) {
+                log.add(name);
+                if (context.get(name) != null) {
+                    return CommandTransition.valueOf(context.getAsString(name));
+                }
+                return NEXT;
+            }
+        };
+    }
+
+    @Test
+    public void testExecuteBatchAsChain() throws Exception {
+        final byte[] expected = { (byte) NEXT.ordinal(), (byte) CommandTransition.DONE.ordinal(),
+                (byte) CommandTransition.FAILURE.ordinal() };
+        for (final BatchMode mode : BatchMode.values()) {
+            final List<String> log = new Vector<>();
+            final DefaultCommandContainer<GenericParameterObject> nested = new DefaultCommandContainer<>();
+            nested.addCommand(chainCommand("third", log));
+            final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+            container.addCommand(1, chainCommand("first", log)).addCommand(2, chainCommand("second", log))
+                    .addCommand(3, nested);
+            final GenericParameterObject done = new DefaultParameterObject();
+            done.put("first", "DONE");
+            final GenericParameterObject failing = new DefaultParameterObject();
+            failing.put("first", "FAILURE");
+
+            assertArrayEquals(expected,
+                    container.executeBatchAsChain(Arrays.asList(new DefaultParameterObject(), done, failing), mode),
+                    mode.name());
+            if (mode == BatchMode.COMMAND_MAJOR) {
+                assertEquals(Arrays.asList("first", "first", "first", "second", "third"), log);
+            }
+        }
+        assertEquals(0, new DefaultCommandContainer<GenericParameterObject>()
+                .executeBatchAsChain(new GenericParameterObject[0]).length);
+    }
 }
@@ -0,0 +1,123 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.builder;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.CommandContainer;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.process.SubProcessCommand;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ChainRegistryTest {
+
+    @Test
+    public void testLoadResources() throws Exception {
+        final ChainRegistry<Object> registry = new ChainRegistry<>()
+                .load(Arrays.asList("/commandChainPriority.xml", "commandChainProcess.xml"));
+        assertThat(registry.size(), CoreMatchers.is(2));
+        final DefaultParameterObject context = new DefaultParameterObject();
+        context.put("resultString", "");
+        registry.get("commandChainPriority").executeCommand(context);
+        assertThat(context.getAsString("resultString"), CoreMatchers.is("S-S-"));
+        assertThat(registry.get("commandChainProcess"), CoreMatchers.notNullValue());
+        assertThat(registry.get("unknown"), CoreMatchers.nullValue());
+    }
+
+    @Test
+    public void testLoadDirectory(@TempDir final Path directory) throws Exception {
+        final Path source = Paths.get("src/test/resources/commandChainPriority.xml");
+        for (int i = 0; i < 50; i++) {
+            Files.copy(source, directory.resolve("chain" + i + ".xml"));
+        }
+        Files.writeString(directory.resolve("readme.txt"), "not a definition");
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final ChainRegistry<Object> registry = new ChainRegistry<>(pool).loadDirectory(directory);
+            assertThat(registry.size(), CoreMatchers.is(50));
+            assertThat(registry.getNames().contains("chain49"), CoreMatchers.is(true));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testErrorsAreReportedTogether() throws Exception {
+        final ChainRegistry<Object> registry = new ChainRegistry<>();
+        final CommandException exception = Assertions.assertThrows(CommandException.class, () -> registry
+                .load(Arrays.asList("invalidXMLDocument.xml", "commandChainPriority.xml", "missing.xml")));
+        assertThat(exception.getMessage(), CoreMatchers.startsWith("Failed to load 2 of 3 definitions: invalidXMLDocument: "));
+        assertThat(exception.getMessage(), CoreMatchers.containsString("; missing: Error reading resource. Resource not found."));
+        assertThat(exception.getSuppressed().length, CoreMatchers.is(2));
+        assertThat(registry.getNames(), CoreMatchers.hasItem("commandChainPriority"));
+    }
+
+    @Test
+    public void testDuplicateNamesAreRejected() throws Exception {
+        final ChainRegistry<Object> registry = new ChainRegistry<>();
+        final CommandException exception = Assertions.assertThrows(CommandException.class, () -> registry.load(
+                Arrays.asList("commandChainPriority.xml", Paths.get("src/test/resources/commandChainPriority.xml"))));
+        assertThat(exception.getMessage(), CoreMatchers.is("Definitions commandChainPriority.xml and "
+                + Paths.get("src/test/resources/commandChainPriority.xml") + " have the same name commandChainPriority"));
+        assertThat(registry.size(), CoreMatchers.is(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SubProcessCommand<Object> shared(final CommandContainer<Object> container) {
+        return (SubProcessCommand<Object>) ((DefaultCommandContainer<Object>) container).getCommandByProcessID("Shared");
+    }
+
+    @Test
+    public void testFragmentIsParsedOnceForAllDefinitions() throws Exception {
+        final ChainRegistry<Object> registry = new ChainRegistry<Object>()
+                .load(Arrays.asList("commandChainSubprocess.xml", "commandChainSubprocessOther.xml"));
+        final SubProcessCommand<Object> first = shared(registry.get("commandChainSubprocess"));
+        final SubProcessCommand<Object> second = shared(registry.get("commandChainSubprocessOther"));
+        assertThat(first, CoreMatchers.not(CoreMatchers.sameInstance(second)));
+        assertThat(first.getFragment(), CoreMatchers.sameInstance(second.getFragment()));
+    }
+
+    @Test
+    public void testNameOf() throws Exception {
+        assertThat(ChainRegistry.nameOf("/chains/order.xml"), CoreMatchers.is("order"));
+        assertThat(ChainRegistry.nameOf(Paths.get("chains", "order.v2.xml")), CoreMatchers.is("order.v2"));
+        assertThat(ChainRegistry.nameOf("order"), CoreMatchers.is("order"));
+    }
+}
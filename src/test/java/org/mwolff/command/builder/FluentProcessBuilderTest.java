@@ -0,0 +1,107 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.builder;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandNext;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+import org.mwolff.command.samplecommands.SimpleTestCommand;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FluentProcessBuilderTest {
+
+    @Test
+    public void testBuildProcess() throws Exception {
+        final DefaultCommandContainer<GenericParameterObject> container = FluentProcessBuilder
+                .<GenericParameterObject> process("order")
+                .action("Start", ProcessTestCommandStart::new).on("OK").goTo("Next")
+                .action("Next", ProcessTestCommandNext::new).on("OK").goTo("Start")
+                .build();
+        final GenericParameterObject context = new DefaultParameterObject();
+        container.executeAsProcess("Start", context);
+        assertThat(context.getAsString("result"), CoreMatchers.is("Start - Start - "));
+        assertThat(container.getCommandByProcessID("Next").findNext("OK"), CoreMatchers.is("Start"));
+    }
+
+    @Test
+    public void testSameResultAsXML() throws Exception {
+        final GenericParameterObject xml = new DefaultParameterObject();
+        new XMLChainBuilder<GenericParameterObject>("/commandChainTwoEntries.xml").getCommandContainer("Start")
+                .executeAsProcess("Start", xml);
+        final GenericParameterObject fluent = new DefaultParameterObject();
+        FluentProcessBuilder.<GenericParameterObject> process("twoEntries")
+                .action("Start", ProcessTestCommandStart::new).on("OK").goTo("End")
+                .action("End", ProcessTestCommandEnd::new)
+                .start("Start")
+                .compile().executeAsProcess("Start", fluent);
+        assertThat(fluent.getAsString("result"), CoreMatchers.is(xml.getAsString("result")));
+    }
+
+    @Test
+    public void testChainCommand() throws Exception {
+        final GenericParameterObject context = new DefaultParameterObject();
+        final CommandTransition transition = FluentProcessBuilder.<GenericParameterObject> process("chain")
+                .command(SimpleTestCommand::new)
+                .command(SimpleTestCommand::new)
+                .build().executeCommand(context);
+        assertThat(transition, CoreMatchers.is(CommandTransition.SUCCESS));
+        assertThat(context.getAsString("resultString"), CoreMatchers.is("S-S-"));
+    }
+
+    @Test
+    public void testInvalidProcess() throws Exception {
+        final FluentProcessBuilder<GenericParameterObject> builder = FluentProcessBuilder
+                .<GenericParameterObject> process("order")
+                .action("Start", ProcessTestCommandStart::new).on("OK").goTo("Missing")
+                .action("Start", ProcessTestCommandNext::new).on("OK").goTo(ProcessCommand.END)
+                .start("Start");
+        final CommandException exception = Assertions.assertThrows(CommandException.class, builder::build);
+        assertThat(exception.getMessage(), CoreMatchers.is("Invalid process definition 'order': "
+                + "Duplicate process ID 'Start'; Action 'Start': transition 'OK' targets unknown action 'Missing'"));
+    }
+
+    @Test
+    public void testFactoryReturnsNull() throws Exception {
+        final FluentProcessBuilder<GenericParameterObject> builder = FluentProcessBuilder
+                .<GenericParameterObject> process("order").action("Start", () -> null).start("Start");
+        final CommandException exception = Assertions.assertThrows(CommandException.class, builder::build);
+        assertThat(exception.getMessage(),
+                CoreMatchers.is("Factory of action 'Start' of process 'order' returned null"));
+    }
+}
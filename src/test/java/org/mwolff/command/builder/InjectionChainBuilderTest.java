@@ -31,6 +31,7 @@ import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.CommandContainer;
 import org.mwolff.command.interfaces.CommandTransition;
 import org.mwolff.command.interfaces.Transition;
 import org.mwolff.command.parameterobject.DefaultParameterObject;
@@ -41,10 +42,15 @@ import org.mwolff.command.testcommand.TestCommand;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class InjectionChainBuilderTest {
 
@@ -159,4 +165,39 @@ public class InjectionChainBuilderTest {
         final CommandTransition result = builder.executeCommandAsChain(context);
         assertEquals(result, CommandTransition.DONE);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testChainIsBuiltOnce() throws Exception {
+        final AtomicInteger builds = new AtomicInteger();
+        final InjectionChainBuilder<GenericParameterObject> builder = new InjectionChainBuilder<GenericParameterObject>() {
+            @Override
+            protected CommandContainer<GenericParameterObject> buildChain() {
+                builds.incrementAndGet();
+                return super.buildChain();
+            }
+        };
+        final List<Command<GenericParameterObject>> commandList = new ArrayList<>();
+        commandList.add(new SimpleTestCommand<>());
+        builder.setCommands(commandList);
+        commandList.add(new FailureTestCommand<>());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<CommandTransition>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> builder.executeCommand(new DefaultParameterObject())));
+            }
+            for (final Future<CommandTransition> result : results) {
+                assertEquals(CommandTransition.SUCCESS, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, builds.get());
+        assertSame(builder.getChain(), builder.getChain());
+
+        builder.setCommands(commandList);
+        assertEquals(CommandTransition.FAILURE, builder.executeCommand(new DefaultParameterObject()));
+        assertEquals(2, builds.get());
+    }
+}
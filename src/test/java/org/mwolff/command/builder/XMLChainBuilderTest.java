@@ -30,13 +30,30 @@ package org.mwolff.command.builder;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
 import org.mwolff.command.interfaces.CommandTransition;
 import org.mwolff.command.parameterobject.DefaultParameterObject;
 import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.AbstractDefaultProcessCommand;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mwolff.command.interfaces.CommandTransition.*;
 
 public class XMLChainBuilderTest {
@@ -116,4 +133,150 @@ public class XMLChainBuilderTest {
         final CommandTransition transition = xmlChainBuilder.executeCommandAsChain(context);
         assertEquals(FAILURE, transition);
     }
+
+    @Test
+    public void testExecuteCommandFromFileAndMemory() throws Exception {
+        final Path file = Paths.get("src/test/resources/commandChainPriority.xml");
+        final DefaultParameterObject context = new DefaultParameterObject();
+        context.put("resultString", "");
+        assertEquals(SUCCESS, new XMLChainBuilder<Object>(file).executeCommand(context));
+        assertEquals(SUCCESS, new XMLChainBuilder<Object>(file.toUri()).executeCommand(context));
+        assertEquals(SUCCESS, new XMLChainBuilder<Object>(Files.readAllBytes(file)).executeCommand(context));
+        assertEquals("S-S-S-S-S-S-", context.getAsString("resultString"));
+    }
+
+    @Test
+    public void testExecuteAsProcessLoadsReachableSubgraph() throws Exception {
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>("/commandChainTwoEntries.xml");
+        final GenericParameterObject context = new DefaultParameterObject();
+        builder.executeAsProcess("Start", context);
+        assertEquals("Start - End - ", context.getAsString("result"));
+        assertEquals(2, ((DefaultCommandContainer<GenericParameterObject>) builder.getCommandContainer("Start"))
+                .getCommands().size());
+        assertSame(builder.getCommandContainer("Start"), builder.getCommandContainer("Start"));
+        assertEquals(1, ((DefaultCommandContainer<GenericParameterObject>) builder.getCommandContainer("End"))
+                .getCommands().size());
+        assertNull(builder.executeAsProcess("Other", new DefaultParameterObject()));
+        Assertions.assertThrows(CommandException.class, () -> builder.getCommandContainer());
+    }
+
+    public static class StatefulCommand extends AbstractDefaultProcessCommand<GenericParameterObject> {
+
+        static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+        private GenericParameterObject current;
+
+        @Override
+        public CommandTransition executeCommand(final GenericParameterObject parameterObject) {
+            return SUCCESS;
+        }
+
+        @Override
+        public String executeAsProcess(final GenericParameterObject context) {
+            current = context;
+            try {
+                BARRIER.await(10, TimeUnit.SECONDS);
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+            current.put("instance", this);
+            return null;
+        }
+    }
+
+    @Test
+    public void testConcurrentExecutionsDoNotShareCommands() throws Exception {
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>(("<process>"
+                + "<action class=\"" + StatefulCommand.class.getName() + "\" id=\"Start\"/></process>").getBytes());
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<Future<GenericParameterObject>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> {
+                    final GenericParameterObject context = new DefaultParameterObject();
+                    builder.executeAsProcess("Start", context);
+                    return context;
+                }));
+            }
+            final Object first = results.get(0).get(10, TimeUnit.SECONDS).get("instance");
+            final Object second = results.get(1).get(10, TimeUnit.SECONDS).get("instance");
+            assertThat(first, CoreMatchers.notNullValue());
+            assertNotSame(first, second);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static class RoutingCommand extends AbstractDefaultProcessCommand<GenericParameterObject> {
+
+        @Override
+        public CommandTransition executeCommand(final GenericParameterObject parameterObject) {
+            return SUCCESS;
+        }
+
+        @Override
+        public String executeAsProcess(final GenericParameterObject context) {
+            return "OK";
+        }
+
+        @Override
+        public String findNext(final String next) {
+            return "Hidden";
+        }
+    }
+
+    @Test
+    public void testExecuteAsProcessKeepsActionsOfOwnRouting() throws Exception {
+        final String xml = "<process>"
+                + "<action class=\"org.mwolff.command.samplecommands.ProcessTestCommandStart\" id=\"Start\">"
+                + "<transition name=\"OK\" to=\"Router\"/></action>"
+                + "<action class=\"" + RoutingCommand.class.getName() + "\" id=\"Router\"/>"
+                + "<action class=\"org.mwolff.command.samplecommands.ProcessTestCommandEnd\" id=\"Hidden\"/>"
+                + "</process>";
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>(xml.getBytes());
+        final GenericParameterObject context = new DefaultParameterObject();
+        builder.executeAsProcess("Start", context);
+        assertEquals("Start - Hidden - ", context.getAsString("result"));
+        assertEquals(3, ((DefaultCommandContainer<GenericParameterObject>) builder.getCommandContainer("Start"))
+                .getCommands().size());
+    }
+
+    private static String definition(final String nextTarget, final String nextClass) {
+        return "<process>"
+                + "<action class=\"org.mwolff.command.samplecommands.ProcessTestCommandStart\" id=\"Start\">"
+                + "<transition name=\"OK\" to=\"Next\"/></action>"
+                + "<action class=\"" + nextClass + "\" id=\"Next\">"
+                + "<transition name=\"OK\" to=\"" + nextTarget + "\"/></action>"
+                + "<action class=\"org.mwolff.command.samplecommands.SimpleTestCommand\"/>"
+                + "</process>";
+    }
+
+    @Test
+    public void testReloadReusesUnchangedInstances(@TempDir final Path directory) throws Exception {
+        final String next = "org.mwolff.command.samplecommands.ProcessTestCommandNext";
+        final Path file = Files.writeString(directory.resolve("reload.xml"), definition("Start", next));
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>(file);
+        final DefaultCommandContainer<GenericParameterObject> first = (DefaultCommandContainer<GenericParameterObject>) builder
+                .reload();
+
+        Files.writeString(file, definition("END", next));
+        final DefaultCommandContainer<GenericParameterObject> second = (DefaultCommandContainer<GenericParameterObject>) builder
+                .reload();
+        assertSame(first.getCommandByProcessID("Start"), second.getCommandByProcessID("Start"));
+        assertNotSame(first.getCommandByProcessID("Next"), second.getCommandByProcessID("Next"));
+        assertSame(first.getCommands().get(2), second.getCommands().get(2));
+        assertEquals("END", second.getCommandByProcessID("Next").findNext("OK"));
+        assertEquals("Start", first.getCommandByProcessID("Next").findNext("OK"));
+
+        Files.writeString(file, definition("END", "org.mwolff.command.samplecommands.ProcessTestCommandEnd"));
+        final DefaultCommandContainer<GenericParameterObject> third = (DefaultCommandContainer<GenericParameterObject>) builder
+                .reload();
+        assertSame(second.getCommandByProcessID("Start"), third.getCommandByProcessID("Start"));
+        assertNotSame(second.getCommandByProcessID("Next"), third.getCommandByProcessID("Next"));
+
+        final DefaultCommandContainer<GenericParameterObject> fourth = (DefaultCommandContainer<GenericParameterObject>) builder
+                .reload();
+        assertSame(third.getCommandByProcessID("Next"), fourth.getCommandByProcessID("Next"));
+        assertNotSame(third.getCommandByProcessID("Start"), builder.getCommandContainer().getCommandByProcessID("Start"));
+    }
 }
@@ -0,0 +1,156 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.compiler;
+
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.DefaultTransition;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+import org.mwolff.command.testcommand.TestCommand;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mwolff.command.interfaces.CommandTransition.*;
+
+public class ChainCompilerTest {
+
+    private final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+
+    private static String chain(final Command<GenericParameterObject> command) {
+        final GenericParameterObject context = new DefaultParameterObject();
+        return command.executeCommand(context) + ":" + context.getAsString("resultString");
+    }
+
+    @Test
+    public void testEmptyContainer() {
+        final ProcessCommand<GenericParameterObject> compiled = ChainCompiler.compile(container);
+        assertThat(compiled.executeCommand(new DefaultParameterObject()), is(SUCCESS));
+        assertThat(compiled.executeCommandAsChain(new DefaultParameterObject()), is(SUCCESS));
+        assertThat(compiled.executeAsProcess("Start", new DefaultParameterObject()), nullValue());
+        assertThat(compiled.getProcessID(), nullValue());
+        assertThrows(IllegalArgumentException.class, () -> compiled.setProcessID("Start"));
+    }
+
+    @Test
+    public void testChainBehavesLikeContainer() {
+        container.addCommand(1, new TestCommand("1-", NEXT));
+        container.addCommand(2, (Command<GenericParameterObject>) parameterObject -> FAILURE);
+        container.addCommand(3, new TestCommand("3-", NEXT));
+        final ProcessCommand<GenericParameterObject> compiled = ChainCompiler.compile(container);
+        assertThat(chain(compiled), is(chain(container)));
+        assertThat(chain(compiled), is("FAILURE:1-"));
+    }
+
+    @Test
+    public void testExecuteAsChainStopsAtDone() {
+        container.addCommand(1, new TestCommand("1-", NEXT));
+        container.addCommand(2, new TestCommand("2-", DONE));
+        container.addCommand(3, new TestCommand("3-", NEXT));
+        final ProcessCommand<GenericParameterObject> compiled = ChainCompiler.compile(container);
+        final GenericParameterObject context = new DefaultParameterObject();
+        assertThat(compiled.executeCommandAsChain(context), is(DONE));
+        assertThat(context.getAsString("resultString"), is("1-2-"));
+    }
+
+    @Test
+    public void testNestedContainerIsCompiled() {
+        final DefaultCommandContainer<GenericParameterObject> nested = new DefaultCommandContainer<>();
+        nested.addCommand(1, new TestCommand("2-", NEXT)).addCommand(2, new TestCommand("3-", NEXT));
+        container.addCommand(1, new TestCommand("1-", NEXT)).addCommand(2, nested)
+                .addCommand(3, new TestCommand("4-", NEXT));
+        assertThat(chain(ChainCompiler.compile(container)), is("SUCCESS:1-2-3-4-"));
+    }
+
+    @Test
+    public void testNonChainCommandFailsAsChain() {
+        container.addCommand((Command<GenericParameterObject>) parameterObject -> SUCCESS);
+        final ProcessCommand<GenericParameterObject> compiled = ChainCompiler.compile(container);
+        assertThrows(ClassCastException.class, () -> compiled.executeCommandAsChain(new DefaultParameterObject()));
+    }
+
+    @Test
+    public void testProcessBehavesLikeContainer() {
+        final ProcessTestCommandStart<GenericParameterObject> start = new ProcessTestCommandStart<>("Start");
+        final DefaultTransition transition = new DefaultTransition();
+        transition.setReturnValue("OK");
+        transition.setTarget("Next");
+        start.addTransition(transition);
+        container.addCommand(1, new TestCommand("chain-", NEXT));
+        container.addCommand(2, start);
+        container.addCommand(3, new ProcessTestCommandEnd<>("Next"));
+        final ProcessCommand<GenericParameterObject> compiled = ChainCompiler.compile(container);
+
+        final GenericParameterObject expected = new DefaultParameterObject();
+        container.executeAsProcess("Start", expected);
+        final GenericParameterObject context = new DefaultParameterObject();
+        assertThat(compiled.executeAsProcess("Start", context), nullValue());
+        assertThat(context.getAsString("result"), is(expected.getAsString("result")));
+        assertThat(context.getAsString("result"), is("Start - Next - "));
+        assertThat(compiled.executeAsProcess("Unknown", context), nullValue());
+        assertThat(compiled.executeAsProcess(context), nullValue());
+    }
+
+    @Test
+    public void testProcessWithOwnRoutingAndCycle() {
+        final GenericParameterObject expected = new DefaultParameterObject();
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>("commandChainProcess.xml");
+        builder.executeAsProcess("Start", expected);
+        final ProcessCommand<GenericParameterObject> compiled = ChainCompiler
+                .compile((DefaultCommandContainer<GenericParameterObject>) builder.getCommandContainer());
+        final GenericParameterObject context = new DefaultParameterObject();
+        compiled.executeAsProcess("Start", context);
+        assertThat(context.getAsString("result"), is(expected.getAsString("result")));
+
+        container.addCommand(1, new ProcessTestCommandStart<GenericParameterObject>("A") {
+            @Override
+            public String findNext(final String next) {
+                return "B";
+            }
+        }).addCommand(2, new ProcessTestCommandEnd<>("B"));
+        final GenericParameterObject routed = new DefaultParameterObject();
+        ChainCompiler.compile(container).executeAsProcess("A", routed);
+        assertThat(routed.getAsString("result"), is("A - B - "));
+    }
+
+    @Test
+    public void testLongChain() {
+        for (int i = 0; i < 300; i++) {
+            container.addCommand(i, new TestCommand("", NEXT));
+        }
+        assertThat(ChainCompiler.compile(container).executeCommandAsChain(new DefaultParameterObject()), is(NEXT));
+    }
+}
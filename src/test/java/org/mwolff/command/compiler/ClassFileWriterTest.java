@@ -0,0 +1,167 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+package org.mwolff.command.compiler;
+
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.compiler.ClassFileWriter.Code;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClassFileWriterTest {
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String NAME = "org/mwolff/command/compiler/Generated";
+    private static final String PICK = "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;";
+
+    private static ClassFileWriter writer() {
+        final ClassFileWriter writer = new ClassFileWriter(NAME, OBJECT);
+        final Code init = new Code(1, 1);
+        init.op(Code.ALOAD_0).invokeSpecial(writer.methodRef(OBJECT, "<init>", "()V")).op(Code.RETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", init);
+        return writer;
+    }
+
+    /** Defines the class, which runs the verifier, and creates an instance. */
+    private static Object instance(final ClassFileWriter writer) throws Throwable {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(writer.toByteArray(), true);
+        return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+    }
+
+    private static Object invoke(final Object instance, final String name, final MethodType type,
+            final Object... arguments) throws Throwable {
+        return MethodHandles.lookup().in(instance.getClass()).findVirtual(instance.getClass(), name, type)
+                .bindTo(instance).invokeWithArguments(arguments);
+    }
+
+    @Test
+    public void testConstantPool() {
+        final ClassFileWriter writer = new ClassFileWriter(NAME, OBJECT);
+        assertThat(writer.utf8(NAME), is(1));
+        assertThat(writer.classRef(NAME), is(2));
+        assertThat(writer.classRef(OBJECT), is(4));
+
+        final int method = writer.methodRef(OBJECT, "<init>", "()V");
+        assertThat(method, is(8));
+        assertThat(writer.methodRef(OBJECT, "<init>", "()V"), is(method));
+        // Same name and type, other kind of reference.
+        assertThat(writer.interfaceMethodRef(OBJECT, "<init>", "()V"), is(9));
+
+        final ByteBuffer bytes = ByteBuffer.wrap(writer.toByteArray());
+        assertThat(bytes.getInt(), is(0xCAFEBABE));
+        assertThat(bytes.getShort(), is((short) 0));
+        assertThat(bytes.getShort(), is((short) 61));
+        assertThat(bytes.getShort(), is((short) 10));
+        assertThat(bytes.get(), is((byte) 1));
+        assertThat(bytes.getShort(), is((short) NAME.length()));
+    }
+
+    @Test
+    public void testPushInt() {
+        final Code code = new Code(1, 0);
+        code.pushInt(5).pushInt(100).pushInt(200);
+        assertArrayEquals(new byte[] { 0x08, 0x10, 100, 0x11, 0, (byte) 200 }, code.toByteArray());
+    }
+
+    @Test
+    public void testSameFrame() throws Throwable {
+        final ClassFileWriter writer = writer();
+        final Code code = new Code(2, 3);
+        code.op(Code.ALOAD_1).op(Code.ALOAD_2);
+        final int jump = code.ifAcmpEq();
+        code.op(Code.ALOAD_1).op(Code.ARETURN);
+        code.bindJump(jump);
+        code.sameFrame();
+        code.op(Code.ACONST_NULL).op(Code.ARETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "pick", PICK, code);
+
+        final Object instance = instance(writer);
+        final MethodType type = MethodType.methodType(Object.class, Object.class, Object.class);
+        assertThat(invoke(instance, "pick", type, "a", "b"), is("a"));
+        assertThat(invoke(instance, "pick", type, "a", "a"), nullValue());
+    }
+
+    @Test
+    public void testAppendFrame() throws Throwable {
+        final ClassFileWriter writer = writer();
+        final Code code = new Code(2, 4);
+        code.op(Code.ALOAD_1).op(0x4e); // astore_3
+        code.op(0x2d).op(Code.ALOAD_2); // aload_3
+        final int jump = code.ifAcmpEq();
+        code.op(Code.ACONST_NULL).op(Code.ARETURN);
+        code.bindJump(jump);
+        code.appendFrame(writer.classRef(OBJECT));
+        code.op(0x2d).op(Code.ARETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "pick", PICK, code);
+
+        final Object instance = instance(writer);
+        final MethodType type = MethodType.methodType(Object.class, Object.class, Object.class);
+        assertThat(invoke(instance, "pick", type, "a", "a"), is("a"));
+        assertThat(invoke(instance, "pick", type, "a", "b"), nullValue());
+    }
+
+    @Test
+    public void testMissingFrameIsRejected() {
+        final ClassFileWriter writer = writer();
+        final Code code = new Code(2, 3);
+        code.op(Code.ALOAD_1).op(Code.ALOAD_2);
+        final int jump = code.ifAcmpEq();
+        code.op(Code.ALOAD_1).op(Code.ARETURN);
+        code.bindJump(jump);
+        code.op(Code.ACONST_NULL).op(Code.ARETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "pick", PICK, code);
+
+        assertThrows(VerifyError.class, () -> instance(writer));
+    }
+
+    @Test
+    public void testFields() throws Throwable {
+        final ClassFileWriter writer = writer();
+        writer.field(ClassFileWriter.ACC_PUBLIC, "value", "Ljava/lang/Object;");
+        final int field = writer.fieldRef(NAME, "value", "Ljava/lang/Object;");
+        final Code set = new Code(2, 2);
+        set.op(Code.ALOAD_0).op(Code.ALOAD_1).putField(field).op(Code.RETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "set", "(Ljava/lang/Object;)V", set);
+        final Code get = new Code(1, 1);
+        get.op(Code.ALOAD_0).getField(field).op(Code.ARETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "get", "()Ljava/lang/Object;", get);
+
+        final Object instance = instance(writer);
+        final Object value = new Object();
+        invoke(instance, "set", MethodType.methodType(void.class, Object.class), value);
+        assertThat(invoke(instance, "get", MethodType.methodType(Object.class)), sameInstance(value));
+    }
+}
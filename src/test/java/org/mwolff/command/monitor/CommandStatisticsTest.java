@@ -0,0 +1,134 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.testcommand.TestCommand;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mwolff.command.interfaces.CommandTransition.*;
+
+public class CommandStatisticsTest {
+
+    @Test
+    public void testCountsPerAction() {
+        final CommandStatistics<GenericParameterObject> statistics = new CommandStatistics<>("test");
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(statistics);
+        container.addCommand(2, new TestCommand("1-", NEXT));
+        container.addCommand(1, new ProcessTestCommandEnd<>("End"));
+
+        final GenericParameterObject context = new DefaultParameterObject();
+        container.executeCommand(context);
+        container.executeCommandAsChain(context);
+        container.executeAsProcess("End", context);
+
+        final Map<String, ActionStatisticsSnapshot> actions = statistics.getActions();
+        assertThat(actions.size(), is(2));
+        final ActionStatisticsSnapshot testCommand = actions.get(TestCommand.class.getName());
+        assertThat(testCommand.getInvocations(), is(2L));
+        assertThat(testCommand.getSuccessCount(), is(1L));
+        assertThat(testCommand.getNextCount(), is(1L));
+        final ActionStatisticsSnapshot end = actions.get("End");
+        assertThat(end.getInvocations(), is(3L));
+        assertThat(end.getSuccessCount(), is(1L));
+        assertThat(end.getNextCount(), is(1L));
+        assertThat(end.getDoneCount(), is(1L));
+
+        statistics.reset();
+        assertThat(statistics.getActions().get("End").getInvocations(), is(0L));
+    }
+
+    @Test
+    public void testExceptionIsCounted() {
+        final CommandStatistics<GenericParameterObject> statistics = new CommandStatistics<>("test");
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(statistics);
+        container.addCommand(parameterObject -> {
+            throw new CommandException("boom");
+        });
+        assertThrows(CommandException.class, () -> container.executeCommand(new DefaultParameterObject()));
+        final ActionStatisticsSnapshot snapshot = statistics.getActions().values().iterator().next();
+        assertThat(snapshot.getInvocations(), is(1L));
+        assertThat(snapshot.getExceptionCount(), is(1L));
+        assertThat(snapshot.getFailureCount(), is(0L));
+    }
+
+    @Test
+    public void testAllocationTracking() {
+        final CommandStatistics<GenericParameterObject> statistics = new CommandStatistics<>("test", true);
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(statistics);
+        container.addCommand(1, parameterObject -> {
+            parameterObject.put("buffer", new byte[1_000_000]);
+            return SUCCESS;
+        });
+        container.addCommand(2, new TestCommand("1-", NEXT));
+        container.executeCommand(new DefaultParameterObject());
+        container.executeCommand(new DefaultParameterObject());
+
+        assertThat(statistics.isTrackingAllocations(), is(true));
+        final Map<String, ActionStatisticsSnapshot> actions = statistics.getActions();
+        final ActionStatisticsSnapshot allocating = actions.values().stream()
+                .filter(snapshot -> !snapshot.getName().equals(TestCommand.class.getName())).findFirst().get();
+        assertThat(allocating.getAllocatedBytes() >= 2_000_000, is(true));
+        assertThat(allocating.getMeanAllocatedBytes() >= 1_000_000, is(true));
+        assertThat(actions.get(TestCommand.class.getName()).getMeanAllocatedBytes() < 1_000_000, is(true));
+        assertThat(new CommandStatistics<>("test").isTrackingAllocations(), is(false));
+    }
+
+    @Test
+    public void testRegisterMBean() throws Exception {
+        final CommandStatistics<GenericParameterObject> statistics = new CommandStatistics<>("jmx-test");
+        statistics.getActionStatistics("Start").record(SUCCESS, 5000);
+        final ObjectName name = statistics.registerMBean();
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertThat(server.getAttribute(name, "ContainerName"), is("jmx-test"));
+            final TabularData actions = (TabularData) server.getAttribute(name, "Actions");
+            assertThat(actions.size(), is(1));
+        } finally {
+            statistics.unregisterMBean();
+        }
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name), is(false));
+    }
+}
@@ -0,0 +1,157 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.DefaultTransition;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+import org.mwolff.command.testcommand.TestCommand;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mwolff.command.interfaces.CommandTransition.NEXT;
+
+public class FlightRecorderListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<RecordedEvent> record(final Runnable runnable) throws Exception {
+        final Path file = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CommandExecutedEvent.class);
+            recording.enable(ProcessStepEvent.class);
+            recording.enable(ChainBuiltEvent.class);
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("org.mwolff.command."))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCommandAndProcessEvents() throws Exception {
+        final DefaultCommandContainer<GenericParameterObject> inner = new DefaultCommandContainer<>();
+        final DefaultCommandContainer<GenericParameterObject> outer = new DefaultCommandContainer<>();
+        final FlightRecorderListener<GenericParameterObject> listener = new FlightRecorderListener<>();
+        inner.addCommandListener(listener).addCommand(new TestCommand("1-", NEXT));
+        outer.addCommandListener(listener).addCommand(inner);
+
+        final DefaultCommandContainer<GenericParameterObject> process = new DefaultCommandContainer<>();
+        final ProcessTestCommandStart<GenericParameterObject> start = new ProcessTestCommandStart<>("Start");
+        final Transition transition = new DefaultTransition();
+        transition.setReturnValue("OK");
+        transition.setTarget("Next");
+        start.addTransition(transition);
+        process.addCommandListener(listener).addCommand(start).addCommand(new ProcessTestCommandEnd<>("Next"));
+
+        final List<RecordedEvent> events = record(() -> {
+            outer.executeCommand(new DefaultParameterObject());
+            process.executeAsProcess("Start", new DefaultParameterObject());
+        });
+
+        final List<RecordedEvent> commands = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.mwolff.command.CommandExecuted"))
+                .collect(Collectors.toList());
+        assertThat(commands.size(), is(2));
+        assertThat(commands.get(0).getInt("depth"), is(1));
+        assertThat(commands.get(0).getClass("commandClass").getName(), is(TestCommand.class.getName()));
+        assertThat(commands.get(0).getString("transition"), is("SUCCESS"));
+        assertThat(commands.get(1).getInt("depth"), is(0));
+
+        final List<RecordedEvent> steps = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.mwolff.command.ProcessStep"))
+                .collect(Collectors.toList());
+        assertThat(steps.size(), is(2));
+        assertThat(steps.get(0).getString("processID"), is("Start"));
+        assertThat(steps.get(0).getString("result"), is("OK"));
+        assertThat(steps.get(0).getString("transition"), is("Next"));
+        assertThat(steps.get(1).getString("processID"), is("Next"));
+    }
+
+    @Test
+    public void testChainBuiltEvent() throws Exception {
+        final List<RecordedEvent> events = record(() -> new XMLChainBuilder<GenericParameterObject>(
+                "commandChainPriority.xml").executeCommand(new DefaultParameterObject()));
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).getString("definition"), is("commandChainPriority.xml"));
+        assertThat(events.get(0).getBoolean("successful"), is(true));
+    }
+
+    @Test
+    public void testNoEventsWithoutRecording() {
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(new FlightRecorderListener<>()).addCommand(new TestCommand("1-", NEXT));
+        final GenericParameterObject context = new DefaultParameterObject();
+        container.executeCommand(context);
+        assertThat(context.getAsString("resultString"), is("1-"));
+    }
+
+    @Test
+    public void testRecordingStartedWhileExecuting() throws Exception {
+        final FlightRecorderListener<GenericParameterObject> listener = new FlightRecorderListener<>();
+        final DefaultCommandContainer<GenericParameterObject> inner = new DefaultCommandContainer<>();
+        inner.addCommandListener(listener).addCommand(new TestCommand("1-", NEXT));
+        final DefaultCommandContainer<GenericParameterObject> outer = new DefaultCommandContainer<>();
+        @SuppressWarnings("unchecked")
+        final List<RecordedEvent>[] events = new List[1];
+        final Command<GenericParameterObject> recording = context -> {
+            try {
+                events[0] = record(() -> inner.executeCommand(context));
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return NEXT;
+        };
+        outer.addCommandListener(listener).addCommand(recording);
+
+        outer.executeCommand(new DefaultParameterObject());
+        assertThat(events[0].size(), is(1));
+        assertThat(events[0].get(0).getClass("commandClass").getName(), is(TestCommand.class.getName()));
+        assertThat(events[0].get(0).getInt("depth"), is(0));
+    }
+}
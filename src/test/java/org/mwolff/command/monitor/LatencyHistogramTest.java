@@ -0,0 +1,92 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getPercentile(99), is(0L));
+        assertThat(histogram.getMean(), is(0.0));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount(), is(10L));
+        assertThat(histogram.getPercentile(50), is(5L));
+        assertThat(histogram.getPercentile(100), is(10L));
+        assertThat(histogram.getMax(), is(10L));
+        assertThat(histogram.getMean(), is(5.5));
+    }
+
+    @Test
+    public void testLargeValuesWithinError() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(1_000_000);
+        final long p50 = histogram.getPercentile(50);
+        assertThat(p50, greaterThanOrEqualTo(100L));
+        assertThat(p50, lessThanOrEqualTo(113L));
+        assertThat(histogram.getPercentile(100), is(1_000_000L));
+    }
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (int i = 0; i < 200; i++) {
+            assertThat(LatencyHistogram.bucketIndex(LatencyHistogram.upperBound(i)), is(i));
+            assertThat(LatencyHistogram.bucketIndex(LatencyHistogram.upperBound(i) + 1), is(i + 1));
+        }
+        assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE), is(487));
+    }
+
+    @Test
+    public void testReset() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(42);
+        histogram.reset();
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMax(), is(0L));
+    }
+}
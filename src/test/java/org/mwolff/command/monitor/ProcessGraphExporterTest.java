@@ -0,0 +1,135 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.interfaces.CommandContainer;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.DefaultTransition;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ProcessGraphExporterTest {
+
+    @Test
+    public void testExportXMLProcessWithoutStatistics() {
+        final CommandContainer<GenericParameterObject> container = new XMLChainBuilder<GenericParameterObject>(
+                "commandChainProcess.xml").getCommandContainer();
+        final ProcessGraphExporter<GenericParameterObject> exporter = new ProcessGraphExporter<>(container);
+
+        final String dot = exporter.toDot();
+        assertThat(dot, containsString("\"Start\" -> \"Next\" [label=\"OK\"];"));
+        assertThat(dot, containsString("\"Start\" -> \"Start\" [label=\"NOK\"];"));
+        assertThat(dot, not(containsString("calls")));
+
+        final String json = exporter.toJson();
+        assertThat(json, containsString(
+                "{\"id\":\"Start\",\"class\":\"org.mwolff.command.samplecommands.ProcessTestCommandStart\"}"));
+        assertThat(json, containsString("{\"from\":\"Next\",\"returnValue\":\"OK\",\"to\":\"Start\"}"));
+    }
+
+    @Test
+    public void testExportWithHeat() {
+        final CommandStatistics<GenericParameterObject> statistics = new CommandStatistics<>("heat");
+        final TransitionStatistics<GenericParameterObject> transitions = new TransitionStatistics<>();
+        final DefaultCommandContainer<GenericParameterObject> process = new DefaultCommandContainer<>();
+        final ProcessTestCommandStart<GenericParameterObject> start = new ProcessTestCommandStart<>("Start");
+        final Transition ok = new DefaultTransition();
+        ok.setReturnValue("OK");
+        ok.setTarget("Next");
+        start.addTransition(ok);
+        final Transition failed = new DefaultTransition();
+        failed.setReturnValue("FAILED");
+        failed.setTarget("END");
+        start.addTransition(failed);
+        process.addCommandListener(statistics).addCommandListener(transitions);
+        process.addCommand(1, new ProcessTestCommandEnd<>("Next")).addCommand(2, start);
+        for (int i = 0; i < 4; i++) {
+            process.executeAsProcess("Start", new DefaultParameterObject());
+        }
+
+        final ProcessGraphExporter<GenericParameterObject> exporter = new ProcessGraphExporter<>(process)
+                .withStatistics(statistics).withStatistics(transitions);
+        final String dot = exporter.toDot();
+        assertThat(dot, containsString("\"Start\\n4 calls"));
+        assertThat(dot, containsString("\"Start\" -> \"Next\" [label=\"OK (4)\", penwidth=5.00];"));
+        assertThat(dot, containsString("\"Start\" -> \"END\" [label=\"FAILED (0)\", penwidth=1.00];"));
+        assertThat(dot, containsString("\"END\" [label=\"END\", shape=doublecircle];"));
+
+        final String json = exporter.toJson();
+        assertThat(json, containsString("\"invocations\":4"));
+        assertThat(json, containsString("\"to\":\"Next\",\"count\":4}"));
+        assertThat(json.startsWith("{\"nodes\":[{\"id\":\"Next\""), is(true));
+    }
+
+    @Test
+    public void testControlCharactersAreEscaped() {
+        final DefaultCommandContainer<GenericParameterObject> process = new DefaultCommandContainer<>();
+        final ProcessTestCommandStart<GenericParameterObject> start = new ProcessTestCommandStart<>("Sta\"rt\n");
+        final Transition ok = new DefaultTransition();
+        ok.setReturnValue("O\tK\u0001");
+        ok.setTarget("END");
+        start.addTransition(ok);
+        process.addCommand(start);
+        final ProcessGraphExporter<GenericParameterObject> exporter = new ProcessGraphExporter<>(process);
+
+        // DOT knows no escapes for control characters other than the line break.
+        assertThat(exporter.toDot(), containsString("\"Sta\\\"rt\\n\" -> \"END\" [label=\"O K \"];"));
+        assertThat(exporter.toJson(),
+                containsString("{\"from\":\"Sta\\\"rt\\n\",\"returnValue\":\"O\\tK\\u0001\""));
+    }
+
+    @Test
+    public void testBackslashIsEscaped() {
+        final DefaultCommandContainer<GenericParameterObject> process = new DefaultCommandContainer<>();
+        process.addCommand(new ProcessTestCommandStart<>("C:\\start"));
+        final ProcessGraphExporter<GenericParameterObject> exporter = new ProcessGraphExporter<>(process);
+
+        assertThat(exporter.toDot(), containsString("\"C:\\\\start\" [label=\"C:\\\\start\"]"));
+        assertThat(exporter.toJson(), containsString("{\"id\":\"C:\\\\start\""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOnlyDefaultContainerIsSupported() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ProcessGraphExporter<GenericParameterObject>(mock(CommandContainer.class)));
+    }
+}
@@ -0,0 +1,115 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.testcommand.TestCommand;
+
+import java.time.Duration;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mwolff.command.interfaces.CommandTransition.NEXT;
+
+public class SamplingPolicyTest {
+
+    @Test
+    public void testEveryNth() {
+        final SamplingPolicy policy = SamplingPolicy.everyNth(3);
+        final SamplingPolicy.State state = new SamplingPolicy.State();
+        assertThat(policy.sample(state), is(false));
+        assertThat(policy.sample(state), is(false));
+        assertThat(policy.sample(state), is(true));
+        assertThat(SamplingPolicy.weight(state), is(3L));
+        assertThat(policy.sample(state), is(false));
+    }
+
+    @Test
+    public void testAlways() {
+        final SamplingPolicy.State state = new SamplingPolicy.State();
+        assertThat(SamplingPolicy.everyNth(1).sample(state), is(true));
+        assertThat(SamplingPolicy.weight(state), is(1L));
+    }
+
+    @Test
+    public void testInterval() throws Exception {
+        final SamplingPolicy policy = SamplingPolicy.every(Duration.ofMillis(200));
+        final SamplingPolicy.State state = new SamplingPolicy.State();
+        assertThat(policy.sample(state), is(false));
+        assertThat(policy.sample(state), is(false));
+        Thread.sleep(500);
+        assertThat(policy.sample(state), is(true));
+        assertThat(SamplingPolicy.weight(state), is(3L));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> SamplingPolicy.everyNth(0));
+        assertThrows(IllegalArgumentException.class, () -> SamplingPolicy.every(Duration.ZERO));
+    }
+
+    @Test
+    public void testStatisticsAreExtrapolated() {
+        final CommandStatistics<GenericParameterObject> statistics = new CommandStatistics<>("test", false,
+                SamplingPolicy.everyNth(10));
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(statistics).addCommand(new TestCommand("", NEXT));
+        final GenericParameterObject context = new DefaultParameterObject();
+        for (int i = 0; i < 1000; i++) {
+            container.executeCommand(context);
+        }
+        final ActionStatisticsSnapshot snapshot = statistics.getActions().get(TestCommand.class.getName());
+        assertThat(snapshot.getInvocations(), is(1000L));
+        assertThat(snapshot.getSuccessCount(), is(1000L));
+        assertThat(snapshot.getSamples(), is(100L));
+    }
+
+    @Test
+    public void testEveryActionIsSampled() {
+        final CommandStatistics<GenericParameterObject> statistics = new CommandStatistics<>("test", false,
+                SamplingPolicy.everyNth(3));
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(statistics).addCommand(new ProcessTestCommandEnd<>("A"))
+                .addCommand(new ProcessTestCommandEnd<>("B")).addCommand(new ProcessTestCommandEnd<>("C"));
+        final GenericParameterObject context = new DefaultParameterObject();
+        for (int i = 0; i < 300; i++) {
+            container.executeCommand(context);
+        }
+        for (final String name : new String[] { "A", "B", "C" }) {
+            final ActionStatisticsSnapshot snapshot = statistics.getActions().get(name);
+            assertThat(snapshot.getInvocations(), is(300L));
+            assertThat(snapshot.getSamples(), is(100L));
+        }
+    }
+}
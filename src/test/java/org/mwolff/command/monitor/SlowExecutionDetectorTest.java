@@ -0,0 +1,116 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.DefaultTransition;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+import org.mwolff.command.testcommand.TestCommand;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mwolff.command.interfaces.CommandTransition.NEXT;
+
+public class SlowExecutionDetectorTest {
+
+    private static final Command<GenericParameterObject> SLOW = parameterObject -> {
+        LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+        return NEXT;
+    };
+
+    @Test
+    public void testFastExecutionIsNotKept() {
+        final SlowExecutionDetector<GenericParameterObject> detector = new SlowExecutionDetector<>(
+                Duration.ofSeconds(10));
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(detector).addCommand(new TestCommand("1-", NEXT));
+        container.executeCommand(new DefaultParameterObject());
+        assertThat(detector.getSlowExecutions().size(), is(0));
+    }
+
+    @Test
+    public void testSlowContainerIsKeptWithPath() {
+        final SlowExecutionDetector<GenericParameterObject> detector = new SlowExecutionDetector<>(
+                Duration.ofMillis(5));
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(detector).addCommand(1, new TestCommand("1-", NEXT)).addCommand(2, SLOW);
+        container.executeCommand(new DefaultParameterObject());
+
+        final List<SlowExecution> slowExecutions = detector.getSlowExecutions();
+        assertThat(slowExecutions.size(), is(1));
+        final SlowExecution slowExecution = slowExecutions.get(0);
+        assertThat(slowExecution.getReason(), startsWith("Execution of"));
+        assertThat(slowExecution.getSteps().size(), is(3));
+        assertThat(slowExecution.getSteps().get(2).getDurationNanos() >= Duration.ofMillis(20).toNanos(), is(true));
+    }
+
+    @Test
+    public void testSlowActionInProcessRecordsTransitions() {
+        final SlowExecutionDetector<GenericParameterObject> detector = new SlowExecutionDetector<>(
+                Duration.ofSeconds(10));
+        detector.setActionThreshold("Next", Duration.ZERO);
+        final DefaultCommandContainer<GenericParameterObject> process = new DefaultCommandContainer<>();
+        final ProcessTestCommandStart<GenericParameterObject> start = new ProcessTestCommandStart<>("Start");
+        final Transition transition = new DefaultTransition();
+        transition.setReturnValue("OK");
+        transition.setTarget("Next");
+        start.addTransition(transition);
+        process.addCommandListener(detector).addCommand(start).addCommand(new ProcessTestCommandEnd<>("Next"));
+        process.executeAsProcess("Start", new DefaultParameterObject());
+
+        final SlowExecution slowExecution = detector.getSlowExecutions().get(0);
+        assertThat(slowExecution.getReason(), startsWith("Action Next"));
+        assertThat(slowExecution.getSteps().get(1).getTransition(), is("OK -> Next"));
+        assertThat(slowExecution.getSteps().get(2).getOutcome(), is("DONE"));
+    }
+
+    @Test
+    public void testBufferKeepsNewestExecutions() {
+        final SlowExecutionDetector<GenericParameterObject> detector = new SlowExecutionDetector<>(Duration.ZERO,
+                2, 16);
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(detector).addCommand(new TestCommand("1-", NEXT));
+        for (int i = 0; i < 5; i++) {
+            container.executeCommand(new DefaultParameterObject());
+        }
+        assertThat(detector.getDetectedCount(), is(5L));
+        assertThat(detector.getSlowExecutions().size(), is(2));
+    }
+}
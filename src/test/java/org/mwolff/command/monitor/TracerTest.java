@@ -0,0 +1,154 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.builder.InjectionChainBuilder;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.DefaultTransition;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+import org.mwolff.command.testcommand.TestCommand;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mwolff.command.interfaces.CommandTransition.NEXT;
+
+public class TracerTest {
+
+    private final List<List<Span>> traces = new ArrayList<>();
+
+    @Test
+    public void testNestedContainersBuildOneTrace() {
+        final Tracer<GenericParameterObject> tracer = new Tracer<>(traces::add);
+        final InjectionChainBuilder<GenericParameterObject> builder = new InjectionChainBuilder<>();
+        final List<Command<GenericParameterObject>> commands = new ArrayList<>();
+        commands.add(new TestCommand("2-", NEXT));
+        commands.add(new TestCommand("3-", NEXT));
+        builder.setCommands(commands);
+        builder.addCommandListener(tracer);
+
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(tracer);
+        container.addCommand(1, new TestCommand("1-", NEXT)).addCommand(2, builder);
+        container.executeCommand(new DefaultParameterObject());
+
+        assertThat(traces.size(), is(1));
+        final List<Span> spans = traces.get(0);
+        assertThat(spans.size(), is(5));
+        assertThat(spans.get(0).getName(), is(DefaultCommandContainer.class.getName()));
+        assertThat(spans.get(0).getParentID(), is(0));
+        assertThat(spans.get(1).getParentID(), is(1));
+        assertThat(spans.get(2).getName(), is(InjectionChainBuilder.class.getName()));
+        assertThat(spans.get(2).getParentID(), is(1));
+        assertThat(spans.get(3).getParentID(), is(3));
+        assertThat(spans.get(3).getOutcome(), is("SUCCESS"));
+        assertThat(spans.get(4).getParentID(), is(3));
+    }
+
+    @Test
+    public void testProcessIsOneTrace() {
+        final Tracer<GenericParameterObject> tracer = new Tracer<>(traces::add);
+        final DefaultCommandContainer<GenericParameterObject> process = new DefaultCommandContainer<>();
+        final ProcessTestCommandStart<GenericParameterObject> start = new ProcessTestCommandStart<>("Start");
+        final Transition transition = new DefaultTransition();
+        transition.setReturnValue("OK");
+        transition.setTarget("Next");
+        start.addTransition(transition);
+        process.addCommandListener(tracer).addCommand(start).addCommand(new ProcessTestCommandEnd<>("Next"));
+
+        process.executeAsProcess("Start", new DefaultParameterObject());
+        process.executeAsProcess("Next", new DefaultParameterObject());
+
+        assertThat(traces.size(), is(2));
+        assertThat(traces.get(0).size(), is(3));
+        assertThat(traces.get(0).get(1).getName(), is("Start"));
+        assertThat(traces.get(0).get(1).getOutcome(), is("NEXT"));
+        assertThat(traces.get(0).get(2).getName(), is("Next"));
+        assertThat(traces.get(0).get(2).getOutcome(), is("DONE"));
+        assertThat(traces.get(1).get(0).getTraceID(), is(traces.get(0).get(0).getTraceID() + 1));
+    }
+
+    @Test
+    public void testSpansExceedingCapacityAreDropped() {
+        final Tracer<GenericParameterObject> tracer = new Tracer<>(2, traces::add);
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(tracer);
+        container.addCommand(new TestCommand("1-", NEXT)).addCommand(new TestCommand("2-", NEXT));
+        container.executeCommand(new DefaultParameterObject());
+        container.executeCommand(new DefaultParameterObject());
+        assertThat(traces.size(), is(2));
+        assertThat(traces.get(1).size(), is(2));
+        assertThat(tracer.getDroppedSpans(), is(2L));
+    }
+
+    @Test
+    public void testXMLChainBuilderWithFileExporter(@TempDir final Path tempDir) throws Exception {
+        final Path file = tempDir.resolve("traces.json");
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>("commandChainPriority.xml");
+        try (FileTraceExporter exporter = new FileTraceExporter(file)) {
+            builder.addCommandListener(new Tracer<>(exporter));
+            builder.executeCommand(new DefaultParameterObject());
+            final List<String> lines = Files.readAllLines(file);
+            assertThat(lines.size(), is(3));
+            assertThat(lines.get(1).contains("\"parent\":1"), is(true));
+            builder.executeCommand(new DefaultParameterObject());
+            assertThat(Files.readAllLines(file).size(), is(6));
+        }
+    }
+
+    @Test
+    public void testExportErrorsAreCounted() {
+        final Tracer<GenericParameterObject> tracer = new Tracer<>(spans -> {
+            throw new IllegalStateException();
+        });
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommandListener(tracer).addCommand(new TestCommand("1-", NEXT));
+        container.executeCommand(new DefaultParameterObject());
+        assertThat(tracer.getExportErrors(), is(1L));
+    }
+
+    @Test
+    public void testSpanEscapesControlCharacters() {
+        final Span span = new Span(1, 1, 0, "A\"\n", 0, 0, "x\u0001", null);
+        assertThat(span.toString().contains("\"name\":\"A\\\"\\n\""), is(true));
+        assertThat(span.toString().contains("\"outcome\":\"x\\u0001\""), is(true));
+    }
+}
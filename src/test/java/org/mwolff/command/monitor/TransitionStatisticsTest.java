@@ -0,0 +1,152 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.monitor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.Transition;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.DefaultTransition;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TransitionStatisticsTest {
+
+    private DefaultCommandContainer<GenericParameterObject> process;
+    private ProcessTestCommandStart<GenericParameterObject> start;
+
+    private static Transition transition(final String returnValue, final String target) {
+        final Transition transition = new DefaultTransition();
+        transition.setReturnValue(returnValue);
+        transition.setTarget(target);
+        return transition;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        process = new DefaultCommandContainer<>();
+        start = new ProcessTestCommandStart<>("Start");
+        start.addTransition(transition("FAIL", "Error"));
+        start.addTransition(transition("OK", "Next"));
+        start.addTransition(transition("OK", "Other"));
+        process.addCommand(1, new ProcessTestCommandEnd<>("Next")).addCommand(2, start);
+    }
+
+    @Test
+    public void testEdgesAreCounted() {
+        final TransitionStatistics<GenericParameterObject> statistics = new TransitionStatistics<>();
+        process.addCommandListener(statistics);
+        for (int i = 0; i < 3; i++) {
+            process.executeAsProcess("Start", new DefaultParameterObject());
+        }
+        assertThat(statistics.getCount("Start", "OK", "Next"), is(3L));
+        assertThat(statistics.getCount("Start", "OK"), is(3L));
+        assertThat(statistics.getCount("Start", "FAIL"), is(0L));
+        assertThat(statistics.getCount("Next", "OK"), is(0L));
+
+        final List<TransitionEdge> edges = statistics.getEdges();
+        assertThat(edges.size(), is(1));
+        assertThat(edges.get(0).toString(), is("Start -[OK]-> Next (3)"));
+        final Map<String, Map<String, Long>> graph = statistics.getWeightedGraph();
+        assertThat(graph.get("Start").get("Next"), is(3L));
+
+        statistics.reset();
+        assertThat(statistics.getEdges().size(), is(0));
+    }
+
+    @Test
+    public void testReorderKeepsFirstMatch() {
+        final TransitionStatistics<GenericParameterObject> statistics = new TransitionStatistics<>();
+        process.addCommandListener(statistics);
+        process.executeAsProcess("Start", new DefaultParameterObject());
+        statistics.reorder(process);
+
+        final List<Transition> transitions = start.getTransitionList();
+        assertThat(transitions.get(0).getTarget(), is("Next"));
+        assertThat(transitions.get(1).getTarget(), is("Other"));
+        assertThat(transitions.get(2).getTarget(), is("Error"));
+        assertThat(start.findNext("OK"), is("Next"));
+    }
+
+    @Test
+    public void testAdaptiveReordering() {
+        final TransitionStatistics<GenericParameterObject> statistics = new TransitionStatistics<>(2);
+        process.addCommandListener(statistics);
+        process.executeAsProcess("Start", new DefaultParameterObject());
+        assertThat(start.getTransitionList().get(0).getTarget(), is("Error"));
+        process.executeAsProcess("Start", new DefaultParameterObject());
+        assertThat(start.getTransitionList().get(0).getTarget(), is("Next"));
+    }
+
+    @Test
+    public void testOrderIsSnapshotOfCounts() {
+        final TransitionStatistics<GenericParameterObject> statistics = new TransitionStatistics<>();
+        process.addCommandListener(statistics);
+        process.executeAsProcess("Start", new DefaultParameterObject());
+        final Comparator<Transition> order = statistics.hottestFirst("Start");
+        for (int i = 0; i < 5; i++) {
+            statistics.onTransition(start, new DefaultParameterObject(), "FAIL", "Error");
+        }
+        assertThat(order.compare(transition("OK", "Next"), transition("FAIL", "Error")) < 0, is(true));
+        assertThat(statistics.hottestFirst("Start").compare(transition("OK", "Next"), transition("FAIL", "Error")) > 0,
+                is(true));
+    }
+
+    @Test
+    public void testSameIDInOtherContainerIsCountedApart() {
+        final DefaultCommandContainer<GenericParameterObject> fragment = new DefaultCommandContainer<>();
+        final ProcessTestCommandStart<GenericParameterObject> other = new ProcessTestCommandStart<>("Start");
+        other.addTransition(transition("OK", "Next"));
+        fragment.addCommand(1, new ProcessTestCommandEnd<>("Next")).addCommand(2, other);
+
+        final TransitionStatistics<GenericParameterObject> statistics = new TransitionStatistics<>();
+        process.addCommandListener(statistics);
+        fragment.addCommandListener(statistics);
+        process.executeAsProcess("Start", new DefaultParameterObject());
+        fragment.executeAsProcess("Start", new DefaultParameterObject());
+        fragment.executeAsProcess("Start", new DefaultParameterObject());
+
+        assertThat(statistics.getCount(start, "OK", "Next"), is(1L));
+        assertThat(statistics.getCount(other, "OK", "Next"), is(2L));
+        assertThat(statistics.getCount("Start", "OK", "Next"), is(3L));
+        assertThat(statistics.getEdges().size(), is(2));
+        assertThat(new ProcessGraphExporter<>(fragment).withStatistics(statistics).toDot(),
+                containsString("\"Start\" -> \"Next\" [label=\"OK (2)\""));
+    }
+}
@@ -0,0 +1,139 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.process;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.samplecommands.ProcessTestCommandEnd;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+import org.mwolff.command.samplecommands.SimpleTestCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LazyProcessCommandTest {
+
+    private static LazyProcessCommand<GenericParameterObject> lazy(final Class<?> type, final String id,
+            final String... transitions) {
+        final LazyProcessCommand<GenericParameterObject> command = new LazyProcessCommand<>(type.getName(), id);
+        for (int i = 0; i < transitions.length; i += 2) {
+            final DefaultTransition transition = new DefaultTransition();
+            transition.setReturnValue(transitions[i]);
+            transition.setTarget(transitions[i + 1]);
+            command.addTransition(transition);
+        }
+        return command;
+    }
+
+    @Test
+    public void testInstantiatesOnFirstLookup() throws Exception {
+        final LazyProcessCommand<GenericParameterObject> start = lazy(ProcessTestCommandStart.class, "Start", "OK", "End");
+        final LazyProcessCommand<GenericParameterObject> unused = lazy(ProcessTestCommandStart.class, "Unused");
+        final LazyProcessCommand<GenericParameterObject> end = lazy(ProcessTestCommandEnd.class, "End");
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommand(start).addCommand(unused).addCommand(end);
+        assertThat(start.getProcessID(), CoreMatchers.is("Start"));
+        assertThat(start.getTransitionList().size(), CoreMatchers.is(1));
+        assertThat(start.isResolved(), CoreMatchers.is(false));
+
+        final GenericParameterObject context = new DefaultParameterObject();
+        container.executeAsProcess("Start", context);
+        assertThat(context.getAsString("result"), CoreMatchers.is("Start - End - "));
+        assertThat(start.isResolved(), CoreMatchers.is(true));
+        assertThat(end.isResolved(), CoreMatchers.is(true));
+        assertThat(unused.isResolved(), CoreMatchers.is(false));
+
+        final ProcessCommand<GenericParameterObject> swapped = container.getCommandByProcessID("Start");
+        assertThat(swapped, CoreMatchers.sameInstance(start.getInstance()));
+        assertThat(swapped.findNext("OK"), CoreMatchers.is("End"));
+    }
+
+    @Test
+    public void testInstantiatesOnceConcurrently() throws Exception {
+        final LazyProcessCommand<GenericParameterObject> command = lazy(ProcessTestCommandStart.class, "Start");
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Command<GenericParameterObject>>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(command::getInstance));
+            }
+            for (final Future<Command<GenericParameterObject>> future : futures) {
+                assertThat(future.get(), CoreMatchers.sameInstance(command.getInstance()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testNoProcessCommand() throws Exception {
+        final LazyProcessCommand<GenericParameterObject> command = lazy(SimpleTestCommand.class, "Simple");
+        final DefaultCommandContainer<GenericParameterObject> container = new DefaultCommandContainer<>();
+        container.addCommand(command);
+        final CommandException lookup = Assertions.assertThrows(CommandException.class,
+                () -> container.getCommandByProcessID("Simple"));
+        assertThat(lookup.getMessage(),
+                CoreMatchers.is("Action 'Simple': " + SimpleTestCommand.class.getName() + " is no ProcessCommand"));
+        final CommandException exception = Assertions.assertThrows(CommandException.class,
+                () -> command.executeAsProcess(new DefaultParameterObject()));
+        assertThat(exception.getMessage(), CoreMatchers.is(SimpleTestCommand.class.getName() + " is no ProcessCommand"));
+    }
+
+    @Test
+    public void testUnknownClass() throws Exception {
+        final LazyProcessCommand<GenericParameterObject> command = new LazyProcessCommand<>("org.mwolff.Unknown", "X");
+        final CommandException exception = Assertions.assertThrows(CommandException.class, command::getInstance);
+        assertThat(exception.getMessage(), CoreMatchers.is("Error while instaciating class via reflection"));
+    }
+
+    @Test
+    public void testXMLChainBuilderWithLazyActions() throws Exception {
+        final GenericParameterObject context = new DefaultParameterObject();
+        final DefaultCommandContainer<GenericParameterObject> container = (DefaultCommandContainer<GenericParameterObject>)
+                new XMLChainBuilder<GenericParameterObject>("/commandChainProcess.xml").setLazyActions(true)
+                        .getCommandContainer();
+        assertThat(container.getCommands().get(0), CoreMatchers.instanceOf(LazyProcessCommand.class));
+        assertThat(container.getCommandByProcessID("Next").executeAsProcess(context), CoreMatchers.is("OK"));
+        assertThat(context.get("counter"), CoreMatchers.is(1));
+        assertThat(((LazyProcessCommand<?>) container.getCommands().get(0)).isResolved(), CoreMatchers.is(false));
+    }
+}
@@ -0,0 +1,179 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.process;
+
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.interfaces.Command;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.samplecommands.ProcessTestCommandStart;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProcessOptimizerTest {
+
+    private final DefaultCommandContainer<GenericParameterObject> process = new DefaultCommandContainer<>();
+    private int priority;
+
+    private ProcessTestCommandStart<GenericParameterObject> action(final String id, final String... transitions) {
+        return add(new ProcessTestCommandStart<>(id), transitions);
+    }
+
+    private ProcessTestCommandStart<GenericParameterObject> add(
+            final ProcessTestCommandStart<GenericParameterObject> action, final String... transitions) {
+        for (int i = 0; i < transitions.length; i += 2) {
+            final DefaultTransition transition = new DefaultTransition();
+            transition.setReturnValue(transitions[i]);
+            transition.setTarget(transitions[i + 1]);
+            action.addTransition(transition);
+        }
+        process.addCommand(++priority, action);
+        return action;
+    }
+
+    private String run(final DefaultCommandContainer<GenericParameterObject> container, final String start) {
+        final GenericParameterObject context = new DefaultParameterObject();
+        container.executeAsProcess(start, context);
+        return context.getAsString("result");
+    }
+
+    @Test
+    public void testLinearRunIsFusedAndDeadActionRemoved() {
+        action("A", "OK", "B");
+        action("B", "OK", "C");
+        action("C", "OK", "END");
+        action("Dead", "OK", "A");
+
+        final DefaultCommandContainer<GenericParameterObject> optimized = ProcessOptimizer.optimize(process, "A");
+        final List<Command<GenericParameterObject>> commands = optimized.getCommands();
+        assertThat(commands.size(), is(1));
+        assertThat(commands.get(0), instanceOf(FusedProcessCommand.class));
+        assertThat(((FusedProcessCommand<GenericParameterObject>) commands.get(0)).getSteps().size(), is(3));
+        assertThat(((FusedProcessCommand<GenericParameterObject>) commands.get(0)).findNext("OK"), nullValue());
+        assertThat(run(optimized, "A"), is(run(process, "A")));
+        assertThat(run(optimized, "A"), is("A - B - C - "));
+    }
+
+    @Test
+    public void testBranchesAreNotFused() {
+        action("A", "OK", "B");
+        action("B", "OK", "C", "NOK", "D");
+        action("C", "OK", "D");
+        action("D");
+
+        final List<Command<GenericParameterObject>> commands = ProcessOptimizer.optimize(process, "A")
+                .getCommands();
+        assertThat(commands.size(), is(3));
+        assertThat(((FusedProcessCommand<GenericParameterObject>) commands.get(0)).getSteps().size(), is(2));
+        assertThat(commands.get(1), instanceOf(ProcessTestCommandStart.class));
+        assertThat(commands.get(2), instanceOf(ProcessTestCommandStart.class));
+    }
+
+    @Test
+    public void testStartPointsAreNotFused() {
+        action("A", "OK", "B");
+        action("B");
+        assertThat(ProcessOptimizer.optimize(process, "A", "B").getCommands().size(), is(2));
+    }
+
+    @Test
+    public void testWithoutStartPointsOnlyEndIsPrecomputed() {
+        action("A", "OK", "B");
+        action("B", "OK", "END");
+        final DefaultCommandContainer<GenericParameterObject> optimized = ProcessOptimizer.optimize(process);
+        final List<Command<GenericParameterObject>> commands = optimized.getCommands();
+        assertThat(commands.size(), is(2));
+        assertThat(commands.get(0), not(instanceOf(FusedProcessCommand.class)));
+        final FusedProcessCommand<GenericParameterObject> end = (FusedProcessCommand<GenericParameterObject>) commands
+                .get(1);
+        assertThat(end.findNext("OK"), nullValue());
+        assertThat(end.getProcessID(), is("B"));
+        assertThat(end.getTransitionList().size(), is(1));
+        assertThat(run(optimized, "B"), is("B - "));
+        assertThrows(UnsupportedOperationException.class, () -> end.setProcessID("C"));
+    }
+
+    @Test
+    public void testEndActionIsKept() {
+        action("A", "OK", "END", "NOK", "END");
+        final DefaultEndCommand end = new DefaultEndCommand();
+        end.setProcessID("END");
+        process.addCommand(++priority, end);
+        final List<Command<GenericParameterObject>> commands = ProcessOptimizer.optimize(process, "A")
+                .getCommands();
+        assertThat(commands.size(), is(2));
+        assertThat(commands.get(0), instanceOf(ProcessTestCommandStart.class));
+    }
+
+    @Test
+    public void testOwnRoutingIsNotFused() {
+        add(new ProcessTestCommandStart<GenericParameterObject>("A") {
+            @Override
+            public String findNext(final String next) {
+                return "C";
+            }
+        }, "OK", "B");
+        action("B");
+        action("C");
+        final List<Command<GenericParameterObject>> commands = ProcessOptimizer.optimize(process, "A")
+                .getCommands();
+        assertThat(commands.size(), is(3));
+        assertThat(run(ProcessOptimizer.optimize(process, "A"), "A"), is("A - C - "));
+    }
+
+    @Test
+    public void testEarlyExitKeepsResult() {
+        add(new ProcessTestCommandStart<GenericParameterObject>("A") {
+            @Override
+            public String executeAsProcess(final GenericParameterObject context) {
+                super.executeAsProcess(context);
+                return "NOK";
+            }
+        }, "OK", "B");
+        action("B", "OK", "C", "NOK", "C");
+        action("C");
+        final DefaultCommandContainer<GenericParameterObject> optimized = ProcessOptimizer.optimize(process, "A");
+        assertThat(optimized.getCommands().get(0), instanceOf(FusedProcessCommand.class));
+
+        // NOK ends the process at A, although B routes it.
+        assertThat(process.executeProcess("A", new DefaultParameterObject()), is("NOK"));
+        assertThat(optimized.executeProcess("A", new DefaultParameterObject()), is("NOK"));
+        assertThat(run(optimized, "A"), is("A - "));
+        assertThat(((FusedProcessCommand<GenericParameterObject>) optimized.getCommands().get(0)).findNext("NOK"),
+                is("C"));
+    }
+}
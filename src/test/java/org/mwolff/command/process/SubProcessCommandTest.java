@@ -0,0 +1,191 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.process;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.CommandException;
+import org.mwolff.command.DefaultCommandContainer;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.interfaces.CommandContainer;
+import org.mwolff.command.interfaces.CommandListener;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.monitor.CommandStatistics;
+import org.mwolff.command.monitor.Span;
+import org.mwolff.command.monitor.Tracer;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SubProcessCommandTest {
+
+    private static SubProcessCommand<GenericParameterObject> subprocess(final String definition) {
+        return subprocess(new XMLChainBuilder<GenericParameterObject>(definition).getCommandContainer());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SubProcessCommand<GenericParameterObject> subprocess(
+            final CommandContainer<GenericParameterObject> container) {
+        return (SubProcessCommand<GenericParameterObject>) ((DefaultCommandContainer<GenericParameterObject>) container)
+                .getCommandByProcessID("Shared");
+    }
+
+    @Test
+    public void testExecuteSubprocess() throws Exception {
+        final GenericParameterObject context = new DefaultParameterObject();
+        new XMLChainBuilder<GenericParameterObject>("/commandChainSubprocess.xml").executeAsProcess("Start", context);
+        assertThat(context.getAsString("result"), CoreMatchers.is("Start - FragmentStart - End - "));
+    }
+
+    @Test
+    public void testFragmentIsSharedPerBuilder() throws Exception {
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>("/commandChainSubprocess.xml");
+        final SubProcessCommand<GenericParameterObject> first = subprocess(builder.getCommandContainer());
+        final SubProcessCommand<GenericParameterObject> second = subprocess(builder.getCommandContainer());
+        assertThat(first, CoreMatchers.not(CoreMatchers.sameInstance(second)));
+        assertThat(first.getFragment(), CoreMatchers.sameInstance(second.getFragment()));
+        assertThat(first.getStart(), CoreMatchers.is("FragmentStart"));
+        assertThat(first.getDefinition(), CoreMatchers.is("commandChainFragment.xml"));
+
+        final SubProcessCommand<GenericParameterObject> other = subprocess("/commandChainSubprocess.xml");
+        assertThat(other.getFragment(), CoreMatchers.not(CoreMatchers.sameInstance(first.getFragment())));
+    }
+
+    @Test
+    public void testReloadBuildsFragmentAgain() throws Exception {
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>("/commandChainSubprocess.xml");
+        final DefaultCommandContainer<GenericParameterObject> fragment = subprocess(builder.reload()).getFragment();
+        assertThat(subprocess(builder.getCommandContainer()).getFragment(), CoreMatchers.sameInstance(fragment));
+        assertThat(subprocess(builder.reload()).getFragment(), CoreMatchers.not(CoreMatchers.sameInstance(fragment)));
+    }
+
+    @Test
+    public void testFragmentUsesSettingsOfBuilder() throws Exception {
+        final SubProcessCommand<GenericParameterObject> subprocess = subprocess(
+                new XMLChainBuilder<GenericParameterObject>("/commandChainSubprocess.xml").setLazyActions(true)
+                        .getCommandContainer());
+        assertThat(subprocess.getFragment().getCommands().get(0), CoreMatchers.instanceOf(LazyProcessCommand.class));
+
+        final List<String> steps = new ArrayList<>();
+        final SubProcessCommand<GenericParameterObject> observed = subprocess(
+                new XMLChainBuilder<GenericParameterObject>("/commandChainSubprocess.xml")
+                        .addCommandListener(new CommandListener<GenericParameterObject>() {
+                            @Override
+                            public void onTransition(final ProcessCommand<GenericParameterObject> command,
+                                    final GenericParameterObject parameterObject, final String result,
+                                    final String next) {
+                                steps.add(command.getProcessID());
+                            }
+                        }).getCommandContainer());
+        observed.executeAsProcess(new DefaultParameterObject());
+        assertThat(steps, CoreMatchers.is(List.of("FragmentStart")));
+    }
+
+    @Test
+    public void testExecuteAsProcessOutsideContainer() throws Exception {
+        final GenericParameterObject context = new DefaultParameterObject();
+        final SubProcessCommand<GenericParameterObject> subprocess = subprocess("/commandChainSubprocess.xml");
+        assertThat(subprocess.executeAsProcess(context), CoreMatchers.is("OK"));
+        assertThat(subprocess.findNext("OK"), CoreMatchers.is("End"));
+        assertThat(context.getAsString("result"), CoreMatchers.is("FragmentStart - "));
+    }
+
+    @Test
+    public void testObservedSubprocess() throws Exception {
+        final List<String> steps = new ArrayList<>();
+        final GenericParameterObject context = new DefaultParameterObject();
+        new XMLChainBuilder<GenericParameterObject>("/commandChainSubprocess.xml")
+                .addCommandListener(new CommandListener<GenericParameterObject>() {
+                    @Override
+                    public void onTransition(final ProcessCommand<GenericParameterObject> command,
+                            final GenericParameterObject parameterObject, final String result, final String next) {
+                        steps.add(command.getProcessID() + ":" + result + "->" + next);
+                    }
+                }).executeAsProcess("Start", context);
+        assertThat(steps, CoreMatchers.is(List.of("Start:OK->Shared", "FragmentStart:OK->END", "Shared:OK->End",
+                "End:null->null")));
+        assertThat(context.getAsString("result"), CoreMatchers.is("Start - FragmentStart - End - "));
+    }
+
+    @Test
+    public void testEndlessNestingIsStopped() throws Exception {
+        final ProcessCommand<GenericParameterObject> process = new XMLChainBuilder<GenericParameterObject>(
+                "/commandChainSelfReference.xml").getCommandContainer();
+        final CommandException exception = Assertions.assertThrows(CommandException.class,
+                () -> process.executeAsProcess("Self", new DefaultParameterObject()));
+        assertThat(exception.getMessage(), CoreMatchers.is("Sub-processes nested deeper than "
+                + DefaultCommandContainer.MAX_SUBPROCESS_DEPTH + " at commandChainSelfReference.xml"));
+    }
+
+    public static class ThrowingCommand extends AbstractDefaultProcessCommand<GenericParameterObject> {
+
+        @Override
+        public String executeAsProcess(final GenericParameterObject context) {
+            throw new IllegalStateException("Boom");
+        }
+
+        @Override
+        public CommandTransition executeCommand(final GenericParameterObject parameterObject) {
+            throw new IllegalStateException("Boom");
+        }
+    }
+
+    @Test
+    public void testFailureInSubprocessIsNotifiedToOpenSteps() throws Exception {
+        final List<List<Span>> traces = new ArrayList<>();
+        final Tracer<GenericParameterObject> tracer = new Tracer<>(traces::add);
+        final CommandStatistics<GenericParameterObject> statistics = new CommandStatistics<>("subprocess");
+        final ProcessCommand<GenericParameterObject> process = new XMLChainBuilder<GenericParameterObject>(
+                "/commandChainThrowingSubprocess.xml").addCommandListener(tracer).addCommandListener(statistics)
+                        .getCommandContainer();
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> process.executeAsProcess("Start", new DefaultParameterObject()));
+        assertThat(traces.size(), CoreMatchers.is(1));
+        final List<Span> spans = traces.get(0);
+        assertThat(spans.size(), CoreMatchers.is(4));
+        assertThat(spans.get(2).getName(), CoreMatchers.is("Shared"));
+        assertThat(spans.get(2).getOutcome(), CoreMatchers.is(IllegalStateException.class.getName()));
+        assertThat(spans.get(3).getName(), CoreMatchers.is("Boom"));
+        assertThat(spans.get(3).getParentID(), CoreMatchers.is(3));
+        assertThat(statistics.getActionStatistics("Shared").getExceptions(), CoreMatchers.is(1L));
+        assertThat(statistics.getActionStatistics("Boom").getExceptions(), CoreMatchers.is(1L));
+
+        process.executeAsProcess("End", new DefaultParameterObject());
+        assertThat(traces.size(), CoreMatchers.is(2));
+        assertThat(statistics.getActionStatistics("End").getInvocations(), CoreMatchers.is(1L));
+        assertThat(statistics.getActionStatistics("Start").getInvocations(), CoreMatchers.is(1L));
+    }
+}
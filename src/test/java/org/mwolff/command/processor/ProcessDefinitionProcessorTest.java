@@ -0,0 +1,140 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.interfaces.ProcessCommand;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ProcessDefinition("commandChainProcess.xml")
+public class ProcessDefinitionProcessorTest {
+
+    @ProcessDefinition(value = "commandChainPriority.xml", className = "PriorityChain")
+    static class Chains {
+    }
+
+    @Test
+    public void testGeneratedProcessBehavesLikeXML() {
+        final GenericParameterObject expected = new DefaultParameterObject();
+        new XMLChainBuilder<GenericParameterObject>("commandChainProcess.xml").executeAsProcess("Start", expected);
+
+        final ProcessCommand<GenericParameterObject> process = new CommandChainProcess<>();
+        final GenericParameterObject context = new DefaultParameterObject();
+        assertThat(process.executeAsProcess("Start", context), nullValue());
+        assertThat(context.getAsString("result"), is(expected.getAsString("result")));
+        assertThat(process.executeAsProcess("Unknown", context), nullValue());
+        assertThat(process.executeAsProcess(context), nullValue());
+        assertThat(process.getProcessID(), nullValue());
+        assertThrows(IllegalArgumentException.class, () -> process.setProcessID("Start"));
+    }
+
+    @Test
+    public void testGeneratedChainBehavesLikeXML() {
+        final GenericParameterObject expected = new DefaultParameterObject();
+        final GenericParameterObject context = new DefaultParameterObject();
+        assertThat(new PriorityChain<GenericParameterObject>().executeCommand(context),
+                is(new XMLChainBuilder<GenericParameterObject>("commandChainPriority.xml").executeCommand(expected)));
+        assertThat(context.getAsString("resultString"), is(expected.getAsString("resultString")));
+        new PriorityChain<GenericParameterObject>().executeCommandAsChain(context);
+    }
+
+    @Test
+    public void testErrorsAreReportedAtCompileTime(@TempDir final Path tempDir) throws Exception {
+        Files.writeString(tempDir.resolve("broken.xml"), "<process start=\"Start\">"
+                + "<action class=\"org.mwolff.command.samplecommands.ProcessTestCommandStart\" id=\"Start\">"
+                + "<transition name=\"OK\" to=\"Missing\"/></action>"
+                + "<action class=\"does.not.Exist\" id=\"Other\"/></process>");
+        final Path source = tempDir.resolve("Broken.java");
+        Files.writeString(source, "@org.mwolff.command.processor.ProcessDefinition(\"broken.xml\")\n"
+                + "public class Broken {}\n");
+        Files.createDirectories(tempDir.resolve("out"));
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            final List<String> options = Arrays.asList("-proc:only", "-processor",
+                    ProcessDefinitionProcessor.class.getName(), "-sourcepath", tempDir.toString(), "-classpath",
+                    System.getProperty("java.class.path"), "-d", tempDir.resolve("out").toString());
+            final boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjects(source)).call();
+            assertThat(success, is(false));
+        }
+        final List<String> errors = new ArrayList<>();
+        for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            errors.add(diagnostic.getMessage(null));
+        }
+        assertThat(errors, hasItem("broken.xml: Class does.not.Exist of action 'Other' not found"));
+        assertThat(errors, hasItem("broken.xml: Action 'Start': transition 'OK' targets unknown action 'Missing'"));
+        assertThat(errors, hasItem("broken.xml: Action 'Other' is not reachable from 'Start'"));
+    }
+
+    @Test
+    public void testClassName() {
+        assertThat(ProcessDefinitionProcessor.className("/processes/order-process.xml"), is("Orderprocess"));
+        assertThat(ProcessDefinitionProcessor.className("1.xml"), is("Process"));
+    }
+
+    @Test
+    public void testLiteralCompiles(@TempDir final Path tempDir) throws Exception {
+        final String value = "a\"b\\c\n\r\t\u0000\u001f\u00e4";
+        assertThat(ProcessSourceWriter.literal("a\"b\\c\n\u0001"), is("\"a\\\"b\\\\c\\n\\001\""));
+        final Path source = tempDir.resolve("Literal.java");
+        Files.writeString(source, "public class Literal { public static final String VALUE = "
+                + ProcessSourceWriter.literal(value) + "; }\n");
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertThat(compiler.run(null, null, null, "-proc:none", "-d", tempDir.toString(), source.toString()), is(0));
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { tempDir.toUri().toURL() })) {
+            assertThat(loader.loadClass("Literal").getField("VALUE").get(null), is(value));
+        }
+    }
+}
@@ -87,4 +87,18 @@ public class ActionContentHandlerTest {
         final List<Action> actions = actionContentHandler.getActions();
         assertThat(actions.size(), CoreMatchers.is(1));
     }
+
+    @Test
+    public void testSharedMapping() throws Exception {
+        final ActionContentHandler actionContentHandler = new ActionContentHandler();
+        actionContentHandler.startElement("process", name -> "start".equals(name) ? "Start" : null);
+        actionContentHandler.startElement("transition", name -> "OK");
+        actionContentHandler.startElement("subprocess", name -> name);
+        actionContentHandler.endElement("subprocess");
+        assertThat(actionContentHandler.getStart(), CoreMatchers.is("Start"));
+        final Action action = actionContentHandler.getActions().get(0);
+        assertThat(action.getDefinition(), CoreMatchers.is("definition"));
+        assertThat(action.getStart(), CoreMatchers.is("start"));
+        assertThat(action.getTransitions().size(), CoreMatchers.is(0));
+    }
 }
@@ -68,7 +68,7 @@ public class ActionListToCommandContainerCommandTest {
 
             @Override
             public String getTarget() {
-                return "target";
+                return "action";
             }
 
             @Override
@@ -109,7 +109,7 @@ public class ActionListToCommandContainerCommandTest {
     public void testInvalidClassname() throws Exception {
         final Action action = new Action();
         action.setClassname("false.package.name.Class");
-        action.setId("action");
+        action.setId("other");
         actionList.add(action);
         final ActionListToCommandContainerCommand actionListToCommandContainerCommand = new ActionListToCommandContainerCommand();
         final SaxParameterObject context = new SaxParameterObject();
@@ -120,11 +120,64 @@ public class ActionListToCommandContainerCommandTest {
         assertThat(error, CoreMatchers.is("Error while instaciating class via reflection"));
     }
     
+    @Test
+    public void testInvalidProcessGraph() throws Exception {
+        final Action action = new Action();
+        action.setClassname("org.mwolff.command.samplecommands.ProcessTestCommandNext");
+        action.setId("action");
+        actionList.add(action);
+        final ActionListToCommandContainerCommand actionListToCommandContainerCommand = new ActionListToCommandContainerCommand();
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(ACTION_LIST, actionList);
+        final CommandTransition result = actionListToCommandContainerCommand.executeCommand(context);
+        assertThat(result, CoreMatchers.is(FAILURE));
+        assertThat(context.getAsString(ERROR_STRING),
+                CoreMatchers.is("Invalid process definition: Duplicate process ID 'action'"));
+        assertThat(context.get(COMMAND_CONTAINER), CoreMatchers.nullValue());
+    }
+
+    public static class CountingCommand extends AbstractDefaultCommand<Object> {
+
+        static int instances;
+
+        public CountingCommand() {
+            instances++;
+        }
+    }
+
+    @Test
+    public void testInvalidProcessGraphInstantiatesNothing() throws Exception {
+        CountingCommand.instances = 0;
+        final Action counting = new Action();
+        counting.setClassname(CountingCommand.class.getName());
+        actionList.add(0, counting);
+        final Action action = new Action();
+        action.setClassname("org.mwolff.command.samplecommands.ProcessTestCommandNext");
+        action.setId("action");
+        actionList.add(action);
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(ACTION_LIST, actionList);
+        assertThat(new ActionListToCommandContainerCommand().executeCommand(context), CoreMatchers.is(FAILURE));
+        assertThat(CountingCommand.instances, CoreMatchers.is(0));
+    }
+
+    @Test
+    public void testSubprocessNeedsFragmentCache() throws Exception {
+        final Action subprocess = new Action();
+        subprocess.setDefinition("commandChainFragment.xml");
+        subprocess.setId("Shared");
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(ACTION_LIST, List.of(subprocess));
+        assertThat(new ActionListToCommandContainerCommand().executeCommand(context), CoreMatchers.is(FAILURE));
+        assertThat(context.getAsString(ERROR_STRING),
+                CoreMatchers.is("No FRAGMENT_CACHE for sub-process commandChainFragment.xml"));
+    }
+
     @Test
     void testCoverage() {
         transition.setTarget("");
         transition.setReturnValue("");
-        assertThat(transition.getTarget(), CoreMatchers.is("target"));
+        assertThat(transition.getTarget(), CoreMatchers.is("action"));
         assertThat(transition.getReturnValue(), CoreMatchers.is("START"));
     }
 }
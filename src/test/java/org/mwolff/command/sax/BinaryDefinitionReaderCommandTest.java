@@ -0,0 +1,126 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.sax;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.parameterobject.DefaultParameterObject;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
+import static org.mwolff.command.interfaces.CommandTransition.SUCCESS;
+import static org.mwolff.command.sax.GlobalCommandConstants.*;
+
+public class BinaryDefinitionReaderCommandTest {
+
+    private static final String XML = "commandChainProcess.xml";
+
+    private Path binary;
+
+    /** Writes the binary definition of the chain with two simple commands for
+     * the process file, so it can be told apart from the XML. */
+    private void writeBinary(final long checksumOffset, final String start) throws Exception {
+        final Path xml = Paths.get(getClass().getResource("/" + XML).toURI());
+        binary = xml.resolveSibling(XML + BinaryDefinition.SUFFIX);
+        final Path chain = xml.resolveSibling("commandChainPriority.xml");
+        final BinaryDefinition definition = new BinaryDefinition(BinaryDefinition.fromXML(chain).getActions(),
+                start, Files.size(xml), BinaryDefinition.checksum(ByteBuffer.wrap(Files.readAllBytes(xml)))
+                        + checksumOffset);
+        try (OutputStream output = Files.newOutputStream(binary)) {
+            definition.writeTo(output);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (binary != null) {
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCurrentBinaryIsLoaded() throws Exception {
+        writeBinary(0, "Start");
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(FILE_NAME, XML);
+        assertThat(new BinaryDefinitionReaderCommand().executeCommand(context), is(SUCCESS));
+        assertThat(((List<Action>) context.get(ACTION_LIST)).size(), is(2));
+        assertThat(context.get(PROCESS_START), is("Start"));
+    }
+
+    @Test
+    public void testStaleBinaryIsIgnored() throws Exception {
+        writeBinary(1000, null);
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(FILE_NAME, XML);
+        assertThat(new BinaryDefinitionReaderCommand().executeCommand(context), is(FAILURE));
+        assertThat(context.get(ACTION_LIST) == null, is(true));
+    }
+
+    @Test
+    public void testMissingAndCorruptBinary() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(FILE_NAME, XML);
+        assertThat(new BinaryDefinitionReaderCommand().executeCommand(context), is(FAILURE));
+
+        writeBinary(0, null);
+        Files.write(binary, new byte[] { 1, 2, 3 });
+        assertThat(new BinaryDefinitionReaderCommand().executeCommand(context), is(FAILURE));
+        assertThat(context.getAsString(ERROR_STRING), is(""));
+    }
+
+    @Test
+    public void testXMLChainBuilderPrefersCurrentBinary() throws Exception {
+        final GenericParameterObject xml = new DefaultParameterObject();
+        new XMLChainBuilder<GenericParameterObject>(XML).executeCommand(xml);
+        assertThat(xml.getAsString("result"), is("Start - "));
+
+        writeBinary(0, null);
+        final GenericParameterObject context = new DefaultParameterObject();
+        new XMLChainBuilder<GenericParameterObject>(XML).executeCommand(context);
+        assertThat(context.getAsString("result"), is(""));
+        assertThat(context.getAsString("resultString").isEmpty(), is(false));
+
+        writeBinary(1, null);
+        final GenericParameterObject stale = new DefaultParameterObject();
+        new XMLChainBuilder<GenericParameterObject>(XML).executeCommand(stale);
+        assertThat(stale.getAsString("result"), is("Start - "));
+    }
+}
@@ -0,0 +1,133 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.sax;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mwolff.command.process.DefaultTransition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinaryDefinitionTest {
+
+    private static Path resource(final String name) throws Exception {
+        return Paths.get(BinaryDefinitionTest.class.getResource("/" + name).toURI());
+    }
+
+    private static byte[] bytes(final BinaryDefinition definition) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        definition.writeTo(output);
+        return output.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final Path xml = resource("commandChainProcess.xml");
+        final BinaryDefinition definition = BinaryDefinition
+                .read(ByteBuffer.wrap(bytes(BinaryDefinition.fromXML(xml))));
+        assertThat(definition.getStart(), nullValue());
+        final byte[] source = Files.readAllBytes(xml);
+        assertThat(definition.isStale(ByteBuffer.wrap(source)), is(false));
+        assertThat(definition.isStale(ByteBuffer.wrap(java.util.Arrays.copyOf(source, source.length + 1))),
+                is(true));
+        // Same length, other content.
+        source[source.length - 2]++;
+        assertThat(definition.isStale(ByteBuffer.wrap(source)), is(true));
+
+        final List<Action> actions = definition.getActions();
+        assertThat(actions.size(), is(2));
+        assertThat(actions.get(0).getClassname(), is("org.mwolff.command.samplecommands.ProcessTestCommandStart"));
+        assertThat(actions.get(0).getId(), is("Start"));
+        assertThat(actions.get(0).getTransitions().size(), is(2));
+        assertThat(actions.get(0).getTransitions().get(1).getReturnValue(), is("NOK"));
+        assertThat(actions.get(1).getTransitions().get(0).getTarget(), is("Start"));
+    }
+
+    @Test
+    public void testChainWithoutIDs() throws Exception {
+        final BinaryDefinition definition = BinaryDefinition.read(
+                ByteBuffer.wrap(bytes(BinaryDefinition.fromXML(resource("commandChainPriority.xml")))));
+        assertThat(definition.getActions().size(), is(2));
+        assertThat(definition.getActions().get(0).getId(), nullValue());
+    }
+
+    @Test
+    public void testCorruptDefinitionsAreRejected() throws Exception {
+        final byte[] bytes = bytes(BinaryDefinition.fromXML(resource("commandChainProcess.xml")));
+
+        final byte[] payload = bytes.clone();
+        payload[payload.length - 1]++;
+        assertThat(assertThrows(IOException.class, () -> BinaryDefinition.read(ByteBuffer.wrap(payload)))
+                .getMessage(), is("Checksum of binary definition does not match."));
+
+        assertThat(bytes[5], is((byte) 1));
+        final byte[] version = bytes.clone();
+        version[5] = 2;
+        assertThat(assertThrows(IOException.class, () -> BinaryDefinition.read(ByteBuffer.wrap(version)))
+                .getMessage(), is("Unsupported version 2 of binary definition."));
+
+        assertThrows(IOException.class, () -> BinaryDefinition.read(ByteBuffer.wrap(new byte[] { 1, 2 })));
+        assertThrows(IOException.class,
+                () -> BinaryDefinition.read(ByteBuffer.wrap(java.util.Arrays.copyOf(bytes, 40))));
+    }
+
+    @Test
+    public void testTooManyTransitionsAreRejected() {
+        final Action action = new Action();
+        action.setId("Start");
+        final DefaultTransition transition = new DefaultTransition();
+        for (int i = 0; i < 0xFFFF; i++) {
+            action.setTransition(transition);
+        }
+        final BinaryDefinition definition = new BinaryDefinition(List.of(action), null, 0, 0);
+        assertThat(assertThrows(IOException.class, () -> bytes(definition)).getMessage(),
+                is("Too many transitions for binary definition."));
+    }
+
+    @Test
+    public void testMainWritesNextToXML(@TempDir final Path tempDir) throws Exception {
+        final Path xml = tempDir.resolve("process.xml");
+        Files.copy(resource("commandChainProcess.xml"), xml);
+        BinaryDefinition.main(new String[] { xml.toString() });
+        final Path binary = tempDir.resolve("process.xml" + BinaryDefinition.SUFFIX);
+        assertThat(BinaryDefinition.read(ByteBuffer.wrap(Files.readAllBytes(binary))).getActions().size(), is(2));
+        assertThrows(IOException.class, () -> BinaryDefinition.fromXML(resource("invalidXMLDocument.xml")));
+    }
+}
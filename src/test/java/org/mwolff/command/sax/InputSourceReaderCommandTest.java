@@ -29,9 +29,16 @@ package org.mwolff.command.sax;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mwolff.command.interfaces.CommandTransition;
 import org.xml.sax.InputSource;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
 import static org.mwolff.command.interfaces.CommandTransition.SUCCESS;
@@ -61,4 +68,59 @@ public class InputSourceReaderCommandTest {
         assertThat(source, CoreMatchers.notNullValue());
     }
 
+
+    @Test
+    public void testFilesystemPath() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(FILE_NAME, "src/test/resources/commandChainProcess.xml");
+        assertThat(new InputSourceReaderCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+        assertThat(new StaxParserCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+        assertThat(((List<?>) context.get(ACTION_LIST)).size(), CoreMatchers.is(2));
+    }
+
+    @Test
+    public void testPathAndURI() throws Exception {
+        final Path file = Paths.get("src/test/resources/commandChainProcess.xml");
+        for (final Object source : new Object[] { file, file.toUri(), file.toFile() }) {
+            final SaxParameterObject context = new SaxParameterObject();
+            context.put(FILE_NAME, source);
+            assertThat(new InputSourceReaderCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+            final InputSource inputSource = (InputSource) context.get(INPUT_SOURCE);
+            assertThat(inputSource.getSystemId(), CoreMatchers.is(file.toUri().toString()));
+        }
+    }
+
+    @Test
+    public void testMissingPath() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(FILE_NAME, Paths.get("does/not/exist.xml"));
+        assertThat(new InputSourceReaderCommand().executeCommand(context), CoreMatchers.is(FAILURE));
+        assertThat(context.getAsString(ERROR_STRING), CoreMatchers.is("Error reading resource. Resource not found."));
+    }
+
+    @Test
+    public void testByteArray() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(FILE_NAME, "<process><action class=\"a.B\"/></process>".getBytes(StandardCharsets.UTF_8));
+        assertThat(new InputSourceReaderCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+        assertThat(new SaxParserCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+        assertThat(((List<?>) context.get(ACTION_LIST)).size(), CoreMatchers.is(1));
+    }
+
+    @Test
+    public void testLargeFileIsMapped(@TempDir final Path directory) throws Exception {
+        final StringBuilder xml = new StringBuilder("<process>");
+        int count = 0;
+        while (xml.length() < 2 * InputSourceReaderCommand.MAP_THRESHOLD) {
+            xml.append("<action id=\"A").append(count++).append("\" class=\"a.B\"/>");
+        }
+        final Path file = Files.writeString(directory.resolve("large.xml"), xml.append("</process>"));
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(FILE_NAME, file);
+        assertThat(new InputSourceReaderCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+        final InputSource source = (InputSource) context.get(INPUT_SOURCE);
+        assertThat(source.getByteStream().available(), CoreMatchers.is((int) Files.size(file)));
+        assertThat(new StaxParserCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+        assertThat(((List<?>) context.get(ACTION_LIST)).size(), CoreMatchers.is(count));
+    }
 }
@@ -0,0 +1,151 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+
+package org.mwolff.command.sax;
+
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.builder.XMLChainBuilder;
+import org.mwolff.command.CommandException;
+import org.mwolff.command.parameterobject.GenericParameterObject;
+import org.mwolff.command.process.DefaultTransition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProcessGraphValidatorTest {
+
+    private static final String PROCESS_COMMAND = "org.mwolff.command.samplecommands.ProcessTestCommandNext";
+
+    private final List<Action> actions = new ArrayList<>();
+
+    private Action action(final String id, final String classname, final String... transitions) {
+        final Action action = new Action();
+        action.setId(id);
+        action.setClassname(classname);
+        for (int i = 0; i < transitions.length; i += 2) {
+            final DefaultTransition transition = new DefaultTransition();
+            transition.setReturnValue(transitions[i]);
+            transition.setTarget(transitions[i + 1]);
+            action.setTransition(transition);
+        }
+        actions.add(action);
+        return action;
+    }
+
+    @Test
+    public void testValidProcess() {
+        action("Start", PROCESS_COMMAND, "OK", "Next", "NOK", "Start");
+        action("Next", PROCESS_COMMAND, "OK", "END");
+        assertThat(ProcessGraphValidator.validate(actions, "Start").size(), is(0));
+    }
+
+    @Test
+    public void testDanglingTargetAndWrongClass() {
+        action("Start", PROCESS_COMMAND, "OK", "Nxt");
+        action("Chain", "org.mwolff.command.samplecommands.SimpleTestCommand", "OK", "Start");
+        final List<String> errors = ProcessGraphValidator.validate(actions, null);
+        assertThat(errors.size(), is(2));
+        assertThat(errors.get(0), is("Action 'Start': transition 'OK' targets unknown action 'Nxt'"));
+        assertThat(errors.get(1), is("Action 'Chain' has transitions but "
+                + "org.mwolff.command.samplecommands.SimpleTestCommand is no ProcessCommand"));
+    }
+
+    @Test
+    public void testTransitionsWithoutID() {
+        action(null, PROCESS_COMMAND, "OK", "END");
+        final List<String> errors = ProcessGraphValidator.validate(actions, null);
+        assertThat(errors.get(0), is("Action of class " + PROCESS_COMMAND + " has transitions but no ID"));
+    }
+
+    @Test
+    public void testUnreachableAndCycleWithoutExit() {
+        action("Start", PROCESS_COMMAND, "OK", "Next");
+        action("Next", PROCESS_COMMAND, "OK", "Start");
+        action("Orphan", PROCESS_COMMAND);
+        assertThat(ProcessGraphValidator.validate(actions, null).size(), is(0));
+
+        final List<String> errors = ProcessGraphValidator.validate(actions, "Start");
+        assertThat(errors.size(), is(1));
+        assertThat(errors.get(0), is("Action 'Orphan' is not reachable from 'Start'"));
+
+        final List<String> warnings = ProcessGraphValidator.warnings(actions, "Start");
+        assertThat(warnings.size(), is(2));
+        assertThat(warnings.get(0), is("Action 'Start' is part of a cycle without exit"));
+        assertThat(warnings.get(1), is("Action 'Next' is part of a cycle without exit"));
+    }
+
+    @Test
+    public void testCycleOfTheSampleProcessIsValid() {
+        // Like commandChainProcess.xml: Start ends the process with a result without transition.
+        action("Start", "org.mwolff.command.samplecommands.ProcessTestCommandStart", "OK", "Next", "NOK", "Start");
+        action("Next", PROCESS_COMMAND, "OK", "Start");
+        assertThat(ProcessGraphValidator.validate(actions, "Start").size(), is(0));
+        assertThat(ProcessGraphValidator.warnings(actions, "Start").size(), is(2));
+    }
+
+    @Test
+    public void testActionWithoutRoutingIsExit() {
+        action("Start", PROCESS_COMMAND, "OK", "Next");
+        action("Next", "org.mwolff.command.samplecommands.SimpleTestCommand", "OK", "Start");
+        assertThat(ProcessGraphValidator.warnings(actions, "Start").size(), is(0));
+    }
+
+    @Test
+    public void testActionWithoutClassIsNoSubprocess() {
+        action("Start", null, "OK", "Next");
+        action("Next", PROCESS_COMMAND, "OK", "END");
+        action("Orphan", PROCESS_COMMAND);
+        assertThat(ProcessGraphValidator.validate(actions, "Start").size(), is(0));
+        assertThat(ProcessGraphValidator.reachable(actions, "Start").size(), is(3));
+
+        actions.get(0).setDefinition("commandChainSubprocess.xml");
+        final List<String> errors = ProcessGraphValidator.validate(actions, "Start");
+        assertThat(errors.size(), is(1));
+        assertThat(errors.get(0), is("Action 'Orphan' is not reachable from 'Start'"));
+    }
+
+    @Test
+    public void testUnknownStart() {
+        action("Start", PROCESS_COMMAND);
+        assertThat(ProcessGraphValidator.validate(actions, "Begin").get(0),
+                is("Start action 'Begin' does not exist"));
+    }
+
+    @Test
+    public void testXMLChainBuilderFailsFast() {
+        final XMLChainBuilder<GenericParameterObject> builder = new XMLChainBuilder<>(
+                "commandChainProcessEndFails.xml");
+        final CommandException exception = assertThrows(CommandException.class, builder::getCommandContainer);
+        assertThat(exception.getMessage(), containsString("targets unknown action 'Next'"));
+    }
+}
@@ -105,4 +105,12 @@ public class SaxParserCommandTest {
         assertThat(transition.getReturnValue(), CoreMatchers.is("OK"));
         assertThat(result, CoreMatchers.is(SUCCESS));
     }
+
+    @Test
+    public void testParserIsReusableAfterFailure() throws Exception {
+        assertThat(startParsing(new SaxParameterObject(), "invalidXMLDocument.xml"), CoreMatchers.is(FAILURE));
+        final SaxParameterObject context = new SaxParameterObject();
+        assertThat(startParsing(context, "commandChainProcess.xml"), CoreMatchers.is(SUCCESS));
+        assertThat(((List<?>) context.get(ACTION_LIST)).size(), CoreMatchers.is(2));
+    }
 }
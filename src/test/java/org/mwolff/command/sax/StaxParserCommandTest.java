@@ -0,0 +1,189 @@
+/** Simple Command Framework.
+ *
+ * Framework for easy building software that fits the SOLID principles.
+ *
+ * @author Manfred Wolff <m.wolff@neusta.de>
+ *
+ *         Download:
+ *         https://github.com/simplecommand/command.git
+ *
+ *         Copyright (C) 2018-2021 Manfred Wolff and the simple command community
+ *
+ *         This library is free software; you can redistribute it and/or
+ *         modify it under the terms of the GNU Lesser General Public
+ *         License as published by the Free Software Foundation; either
+ *         version 2.1 of the License, or (at your option) any later version.
+ *
+ *         This library is distributed in the hope that it will be useful,
+ *         but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *         MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *         Lesser General Public License for more details.
+ *
+ *         You should have received a copy of the GNU Lesser General Public
+ *         License along with this library; if not, write to the Free Software
+ *         Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ *         02110-1301
+ *         USA */
+
+package org.mwolff.command.sax;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.mwolff.command.interfaces.CommandTransition;
+import org.mwolff.command.interfaces.Transition;
+import org.xml.sax.InputSource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mwolff.command.interfaces.CommandTransition.FAILURE;
+import static org.mwolff.command.interfaces.CommandTransition.SUCCESS;
+import static org.mwolff.command.sax.GlobalCommandConstants.*;
+
+public class StaxParserCommandTest {
+
+    private CommandTransition startParsing(SaxParameterObject context, String filename) {
+
+        final InputStream inputStream = this.getClass().getResourceAsStream("/" + filename);
+        final InputSource inputSource = new InputSource(inputStream);
+        context.put(INPUT_SOURCE.toString(), inputSource);
+
+        final StaxParserCommand commandStaxParser = new StaxParserCommand();
+        return commandStaxParser.executeCommand(context);
+    }
+
+    @Test
+    public void testStaxParserFailure() {
+        final SaxParameterObject context = new SaxParameterObject();
+        final CommandTransition result = startParsing(context, "invalidXMLDocument.xml");
+        assertThat(result, CoreMatchers.is(FAILURE));
+        // Because of different OS (English vs. German) you cannot parse the
+        // actual error message.
+        assertThat(context.getAsString(ERROR_STRING.toString()), CoreMatchers.is(CoreMatchers.not("")));
+    }
+
+    @Test
+    public void testSingleActionWithClassName() throws Exception {
+
+        final SaxParameterObject context = new SaxParameterObject();
+        final CommandTransition result = startParsing(context, "commandChainOneComandSimple.xml");
+
+        @SuppressWarnings("unchecked")
+        final List<Action> actions = (List<Action>) context.get(ACTION_LIST);
+        assertThat(actions.size(), CoreMatchers.is(1));
+        assertThat(actions.get(0).getId(), CoreMatchers.nullValue());
+        assertThat(actions.get(0).getClassname(),
+                CoreMatchers.is("org.mwolff.command.samplecommands.SimpleTestCommand"));
+        assertThat(result, CoreMatchers.is(SUCCESS));
+    }
+
+    @Test
+    public void testSingleActionWithClassNameAndId() throws Exception {
+
+        final SaxParameterObject context = new SaxParameterObject();
+        final CommandTransition result = startParsing(context, "commandChainProcess.xml");
+
+        @SuppressWarnings("unchecked")
+        final List<Action> actions = (List<Action>) context.get(ACTION_LIST);
+        assertThat(actions.size(), CoreMatchers.is(2));
+        assertThat(actions.get(0).getId(), CoreMatchers.is("Start"));
+        assertThat(actions.get(0).getClassname(),
+                CoreMatchers.is("org.mwolff.command.samplecommands.ProcessTestCommandStart"));
+        assertThat(result, CoreMatchers.is(SUCCESS));
+    }
+
+    @Test
+    public void testActionWithTransition() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        final CommandTransition result = startParsing(context, "commandChainProcess.xml");
+
+        @SuppressWarnings("unchecked")
+        final List<Action> actions = (List<Action>) context.get(ACTION_LIST);
+        final Transition transition = actions.get(0).getTransitions().get(0);
+        assertThat(transition.getTarget(), CoreMatchers.is("Next"));
+        assertThat(transition.getReturnValue(), CoreMatchers.is("OK"));
+        assertThat(result, CoreMatchers.is(SUCCESS));
+    }
+
+    @Test
+    public void testParserIsReusableAfterFailure() throws Exception {
+        assertThat(startParsing(new SaxParameterObject(), "invalidXMLDocument.xml"), CoreMatchers.is(FAILURE));
+        final SaxParameterObject context = new SaxParameterObject();
+        assertThat(startParsing(context, "commandChainProcess.xml"), CoreMatchers.is(SUCCESS));
+        assertThat(((List<?>) context.get(ACTION_LIST)).size(), CoreMatchers.is(2));
+    }
+
+    @Test
+    public void testProcessStart() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(INPUT_SOURCE, new InputSource(new StringReader(
+                "<process start=\"Next\"><action id=\"Start\" class=\"a.B\"/><action id=\"Next\" class=\"a.C\"/></process>")));
+        assertThat(new StaxParserCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+        assertThat(context.get(PROCESS_START), CoreMatchers.is("Next"));
+        assertThat(((List<?>) context.get(ACTION_LIST)).size(), CoreMatchers.is(2));
+    }
+
+    @Test
+    public void testDoctypeIsRejected() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(INPUT_SOURCE, new InputSource(new StringReader(
+                "<!DOCTYPE process [<!ENTITY x \"y\">]><process><action class=\"a.B\"/></process>")));
+        assertThat(new StaxParserCommand().executeCommand(context), CoreMatchers.is(FAILURE));
+        assertThat(context.get(ACTION_LIST), CoreMatchers.nullValue());
+    }
+
+    @Test
+    public void testMissingInputSource() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        assertThat(new StaxParserCommand().executeCommand(context), CoreMatchers.is(FAILURE));
+        assertThat(context.getAsString(ERROR_STRING), CoreMatchers.is(CoreMatchers.not("")));
+    }
+
+    @Test
+    public void testSubprocess() throws Exception {
+        final SaxParameterObject context = new SaxParameterObject();
+        final CommandTransition result = startParsing(context, "commandChainSubprocess.xml");
+
+        @SuppressWarnings("unchecked")
+        final List<Action> actions = (List<Action>) context.get(ACTION_LIST);
+        assertThat(actions.size(), CoreMatchers.is(3));
+        assertThat(actions.get(1).getId(), CoreMatchers.is("Shared"));
+        assertThat(actions.get(1).getClassname(), CoreMatchers.nullValue());
+        assertThat(actions.get(1).getDefinition(), CoreMatchers.is("commandChainFragment.xml"));
+        assertThat(actions.get(1).getTransitions().get(0).getTarget(), CoreMatchers.is("End"));
+        assertThat(result, CoreMatchers.is(SUCCESS));
+    }
+
+    @Test
+    public void testStreamIsClosed() throws Exception {
+        final boolean[] closed = new boolean[2];
+        final InputStream inputStream = new FilterInputStream(
+                getClass().getResourceAsStream("/commandChainProcess.xml")) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+        final SaxParameterObject context = new SaxParameterObject();
+        context.put(INPUT_SOURCE.toString(), new InputSource(inputStream));
+        assertThat(new StaxParserCommand().executeCommand(context), CoreMatchers.is(SUCCESS));
+        assertThat(closed[0], CoreMatchers.is(true));
+
+        final Reader reader = new StringReader("<process><action") {
+            @Override
+            public void close() {
+                closed[1] = true;
+                super.close();
+            }
+        };
+        context.put(INPUT_SOURCE.toString(), new InputSource(reader));
+        assertThat(new StaxParserCommand().executeCommand(context), CoreMatchers.is(FAILURE));
+        assertThat(closed[1], CoreMatchers.is(true));
+    }
+}